@@ -0,0 +1,173 @@
+package com.scenicairways.config;
+
+import com.scenicairways.model.Booking;
+import com.scenicairways.model.Flight;
+import com.scenicairways.model.IdempotencyRecord;
+import com.scenicairways.model.NodeLease;
+import com.scenicairways.model.SeatHold;
+import com.scenicairways.model.SeatMapTemplate;
+import com.scenicairways.model.User;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Makes sure the indexes declared on the documents exist, then explains one query per repository
+ * method shape and reports any that would fall back to a collection scan.
+ */
+@Component
+public class MongoIndexVerifier implements ApplicationRunner {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Flight.class, Booking.class, User.class, SeatHold.class, SeatMapTemplate.class, IdempotencyRecord.class, NodeLease.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Value("${app.mongo.verify-indexes:true}")
+    private boolean verifyIndexes;
+
+    @Value("${app.mongo.fail-on-collscan:false}")
+    private boolean failOnCollscan;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!verifyIndexes) {
+            return;
+        }
+
+        ensureIndexes();
+
+        List<String> collectionScans = new ArrayList<>();
+        for (Map.Entry<String, Query> entry : repositoryQueries().entrySet()) {
+            String label = entry.getKey();
+            Class<?> type = label.startsWith("Flight") ? Flight.class
+                : label.startsWith("SeatHold") ? SeatHold.class : Booking.class;
+            try {
+                List<String> stages = explain(type, entry.getValue());
+                System.out.println("Explain " + label + ": " + stages);
+                if (stages.contains("COLLSCAN")) {
+                    collectionScans.add(label);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not explain " + label + ": " + e.getMessage());
+            }
+        }
+
+        if (!collectionScans.isEmpty()) {
+            String message = "Repository queries running as COLLSCAN: " + collectionScans;
+            if (failOnCollscan) {
+                throw new IllegalStateException(message);
+            }
+            System.err.println("WARNING: " + message);
+        }
+    }
+
+    private void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> type : INDEXED_DOCUMENTS) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                Set<String> existing = indexOps.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+                for (IndexDefinition definition : resolver.resolveIndexFor(type)) {
+                    String name = definition.getIndexOptions().getString("name");
+                    if (name == null || !existing.contains(name)) {
+                        indexOps.ensureIndex(definition);
+                        System.out.println("Created index " + definition.getIndexKeys().toJson()
+                            + " on " + mongoTemplate.getCollectionName(type));
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not verify indexes for " + type.getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // One representative query per repository method shape
+    private Map<String, Query> repositoryQueries() {
+        LocalDate today = LocalDate.now();
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("FlightRepository.findByDepartureAndArrivalAndDate", Query.query(
+            Criteria.where("departure").is("Mumbai").and("arrival").is("Goa").and("date").is(today)));
+        queries.put("FlightRepository.findByDateGreaterThanEqual", Query.query(
+            Criteria.where("date").gte(today)));
+        queries.put("FlightRepository.findAvailableFlights", Query.query(
+            Criteria.where("date").gte(today).and("availableSeats").gt(0)));
+        queries.put("FlightRepository.findAvailableFlightsAfter", Query.query(
+            Criteria.where("date").gte(today).and("availableSeats").gt(0).orOperator(
+                Criteria.where("date").gt(today),
+                Criteria.where("date").is(today).and("id").gt("000000000000000000000000"))));
+        queries.put("BookingRepository.findByUserId", Query.query(Criteria.where("userId").is("explain")));
+        queries.put("BookingRepository.findByUserIdAndIdGreaterThan", Query.query(
+            Criteria.where("userId").is("explain").and("id").gt("SA0")));
+        queries.put("BookingRepository.findByFlightId", Query.query(Criteria.where("flightId").is("explain")));
+        queries.put("BookingRepository.findByStatus", Query.query(
+            Criteria.where("status").is(Booking.BookingStatus.CONFIRMED)));
+        queries.put("BookingRepository.streamByFlightIdAndStatusNot", Query.query(
+            Criteria.where("flightId").is("explain").and("status").ne(Booking.BookingStatus.CANCELLED)));
+        queries.put("BookingRepository.findByItineraryIdOrderByIdAsc", Query.query(
+            Criteria.where("itineraryId").is("explain")));
+        queries.put("BoardingPassService.refreshRevocations", Query.query(
+            Criteria.where("flightId").in(List.of("explain", "explain2")).and("status").is(Booking.BookingStatus.CANCELLED)));
+        queries.put("BookingOutboxDispatcher.dispatch", Query.query(
+            Criteria.where("outbox.0.nextAttemptAt").lte(LocalDateTime.now())));
+        queries.put("SeatHoldService.sweepExpiredHolds", Query.query(
+            Criteria.where("expiresAt").lte(LocalDateTime.now())));
+        queries.put("SeatHoldService.heldSeats", Query.query(
+            Criteria.where("flightId").is("explain").and("expiresAt").gt(LocalDateTime.now())));
+        return queries;
+    }
+
+    private List<String> explain(Class<?> type, Query query) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), mappingContext.getPersistentEntity(type));
+        Document plan = mongoTemplate.getCollection(mongoTemplate.getCollectionName(type)).find(filter).explain();
+
+        Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        return stages;
+    }
+
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.containsKey("stage")) {
+                String stage = document.getString("stage");
+                stages.add(document.containsKey("indexName") ? stage + "(" + document.getString("indexName") + ")" : stage);
+            }
+            for (Object value : document.values()) {
+                collectStages(value, stages);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                collectStages(value, stages);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.scenicairways.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.scenicairways.dto.BoardingScanRequest;
+import com.scenicairways.dto.BoardingScanResult;
+import com.scenicairways.service.BoardingPassService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/boarding")
+@CrossOrigin(origins = "*")
+public class BoardingController {
+
+    @Autowired
+    private BoardingPassService boardingPassService;
+
+    @PostMapping("/flights/{flightId}/scan")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BoardingScanResult> scan(@PathVariable String flightId,
+                                                   @Valid @RequestBody BoardingScanRequest scanRequest) {
+        return ResponseEntity.ok(boardingPassService.scan(flightId, scanRequest.getPayload()));
+    }
+}
@@ -1,10 +1,11 @@
 package com.scenicairways.controller;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,14 +16,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.scenicairways.dto.BookingRequest;
 import com.scenicairways.dto.BookingStatusRequest;
+import com.scenicairways.dto.BulkBookingRequest;
+import com.scenicairways.dto.BulkBookingResult;
+import com.scenicairways.dto.ItineraryBooking;
+import com.scenicairways.dto.ItineraryBookingRequest;
+import com.scenicairways.dto.PageResponse;
 import com.scenicairways.model.Booking;
 import com.scenicairways.model.User;
 import com.scenicairways.service.BookingService;
+import com.scenicairways.service.IdempotencyService;
+import com.scenicairways.service.QRCodeService;
 
 import jakarta.validation.Valid;
 
@@ -36,19 +46,69 @@ public class BookingController {
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest bookingRequest, 
-                                               Authentication authentication) {
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest bookingRequest,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        Booking booking = bookingService.createBooking(bookingRequest, user.getId());
-        return ResponseEntity.ok(booking);
+        try {
+            IdempotencyService.Outcome<Booking> outcome = bookingService.createBooking(bookingRequest, user.getId(), idempotencyKey);
+            return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.result());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/itineraries")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> createItinerary(@Valid @RequestBody ItineraryBookingRequest itineraryRequest,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                             Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        try {
+            IdempotencyService.Outcome<ItineraryBooking> outcome = bookingService.createItinerary(itineraryRequest, user.getId(), idempotencyKey);
+            return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.result());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/itineraries/{itineraryId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ItineraryBooking> getItinerary(@PathVariable String itineraryId, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        Optional<ItineraryBooking> itinerary = bookingService.getItinerary(itineraryId);
+
+        if (itinerary.isPresent()) {
+            // Users can only see their own itineraries, admins can see all
+            if (user.getRole() == User.Role.ADMIN || itinerary.get().getLegs().get(0).getUserId().equals(user.getId())) {
+                return ResponseEntity.ok(itinerary.get());
+            } else {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        }
+        return ResponseEntity.notFound().build();
     }
 
     @GetMapping("/user")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Booking>> getUserBookings(Authentication authentication) {
+    public ResponseEntity<?> getUserBookings(@RequestParam(required = false) String after,
+                                             @RequestParam(defaultValue = "50") int size,
+                                             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<Booking> bookings = bookingService.getBookingsByUserId(user.getId());
-        return ResponseEntity.ok(bookings);
+        try {
+            PageResponse<Booking> bookings = bookingService.getBookingsByUserId(user.getId(), after, size);
+            return ResponseEntity.ok(bookings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -70,9 +130,14 @@ public class BookingController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(bookings);
+    public ResponseEntity<?> getAllBookings(@RequestParam(required = false) String after,
+                                            @RequestParam(defaultValue = "50") int size) {
+        try {
+            PageResponse<Booking> bookings = bookingService.getAllBookings(after, size);
+            return ResponseEntity.ok(bookings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}/status")
@@ -83,6 +148,28 @@ public class BookingController {
         return updatedBooking != null ? ResponseEntity.ok(updatedBooking) : ResponseEntity.notFound().build();
     }
 
+    @PutMapping("/bulk/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> bulkUpdateStatus(@Valid @RequestBody BulkBookingRequest bulkRequest) {
+        try {
+            BulkBookingResult result = bookingService.bulkUpdateStatus(bulkRequest);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> bulkCancel(@Valid @RequestBody BulkBookingRequest bulkRequest) {
+        try {
+            BulkBookingResult result = bookingService.bulkCancel(bulkRequest);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and @bookingService.isBookingOwner(#id, authentication.principal.id))")
     public ResponseEntity<Void> cancelBooking(@PathVariable String id) {
@@ -110,4 +197,44 @@ public class BookingController {
         }
         return ResponseEntity.notFound().build();
     }
+
+    @GetMapping("/{id}/qr")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<byte[]> getQrCode(@PathVariable String id,
+                                            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        Optional<Booking> booking = bookingService.getBookingById(id);
+        if (booking.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (user.getRole() != User.Role.ADMIN && !booking.get().getUserId().equals(user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        QRCodeService.QRImage image = bookingService.renderQrCode(booking.get());
+        String etag = "\"" + image.etag() + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.IMAGE_PNG)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .body(image.png());
+    }
+
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -1,15 +1,43 @@
 package com.scenicairways.controller;
 
+import com.scenicairways.dto.FareCalendarDay;
+import com.scenicairways.dto.FlightImportResult;
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.GroupSeatRequest;
+import com.scenicairways.dto.Itinerary;
+import com.scenicairways.dto.PageResponse;
+import com.scenicairways.dto.RouteResponse;
+import com.scenicairways.dto.SeatHoldRequest;
+import com.scenicairways.dto.SeatMapOverlay;
+import com.scenicairways.dto.SunAnalysis;
 import com.scenicairways.model.Flight;
+import com.scenicairways.model.FlightSchedule;
+import com.scenicairways.model.SeatHold;
+import com.scenicairways.model.SeatMapTemplate;
+import com.scenicairways.model.User;
+import com.scenicairways.service.FlightImportService;
 import com.scenicairways.service.FlightService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.validation.Valid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -21,18 +49,60 @@ public class FlightController {
     private FlightService flightService;
 
     @GetMapping("/search")
-    public ResponseEntity<List<Flight>> searchFlights(
+    public ResponseEntity<?> searchFlights(
+            @RequestParam String departure,
+            @RequestParam String arrival,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        try {
+            List<FlightSummary> flights = date != null
+                ? flightService.searchFlights(departure, arrival, date)
+                : flightService.searchFlights(departure, arrival, fromDate, toDate);
+            return ResponseEntity.ok(flights);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/fares")
+    public ResponseEntity<?> getFareCalendar(
             @RequestParam String departure,
             @RequestParam String arrival,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Flight> flights = flightService.searchFlights(departure, arrival, date);
-        return ResponseEntity.ok(flights);
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        try {
+            List<FareCalendarDay> days = flightService.getFareCalendar(departure, arrival, month);
+            return ResponseEntity.ok(days);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/connections")
+    public ResponseEntity<?> searchConnections(
+            @RequestParam String departure,
+            @RequestParam String arrival,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "3") int maxLegs,
+            @RequestParam(defaultValue = "45") int minConnectionMinutes,
+            @RequestParam(defaultValue = "5") int limit) {
+        try {
+            List<Itinerary> itineraries = flightService.searchConnections(departure, arrival, date, maxLegs, minConnectionMinutes, limit);
+            return ResponseEntity.ok(itineraries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Flight>> getAvailableFlights() {
-        List<Flight> flights = flightService.getAvailableFlights();
-        return ResponseEntity.ok(flights);
+    public ResponseEntity<?> getAvailableFlights(@RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        try {
+            PageResponse<FlightSummary> flights = flightService.getAvailableFlights(after, size);
+            return ResponseEntity.ok(flights);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -41,11 +111,138 @@ public class FlightController {
         return flight.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<List<Flight.SeatRow>> getSeatLayout(@PathVariable String id) {
+        List<Flight.SeatRow> seatLayout = flightService.getSeatLayout(id);
+        return seatLayout != null ? ResponseEntity.ok(seatLayout) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/route")
+    public ResponseEntity<RouteResponse> getRoute(@PathVariable String id,
+                                                  @RequestParam(defaultValue = "6") int zoom) {
+        RouteResponse route = flightService.getRoute(id, zoom);
+        if (route == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate())
+            .body(route);
+    }
+
+    @GetMapping("/{id}/sun")
+    public ResponseEntity<SunAnalysis> getSunAnalysis(@PathVariable String id) {
+        SunAnalysis analysis = flightService.getSunAnalysis(id);
+        return analysis != null ? ResponseEntity.ok(analysis) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/sun/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> recomputeSunPositions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        try {
+            return ResponseEntity.ok(flightService.recomputeSunPositions(fromDate, toDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/seats/overlay")
+    public ResponseEntity<SeatMapOverlay> getSeatMapOverlay(@PathVariable String id) {
+        SeatMapOverlay overlay = flightService.getSeatMapOverlay(id);
+        return overlay != null ? ResponseEntity.ok(overlay) : ResponseEntity.notFound().build();
+    }
+
+    @PutMapping("/{id}/seats/prices")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateSeatPrices(@PathVariable String id, @RequestBody Map<String, Double> prices) {
+        try {
+            boolean updated = flightService.updateSeatPrices(id, prices);
+            return updated ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Templates never change once saved, so clients may cache them indefinitely
+    @GetMapping("/seat-maps/{templateId}")
+    public ResponseEntity<SeatMapTemplate> getSeatMapTemplate(@PathVariable String templateId) {
+        SeatMapTemplate template = flightService.getSeatMapTemplate(templateId);
+        if (template == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+            .body(template);
+    }
+
+    @GetMapping("/seat-maps")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<SeatMapTemplate>> getSeatMapTemplates() {
+        return ResponseEntity.ok(flightService.getSeatMapTemplates());
+    }
+
+    @PostMapping("/seat-maps")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createSeatMapTemplate(@RequestBody SeatMapTemplate template) {
+        try {
+            SeatMapTemplate createdTemplate = flightService.createSeatMapTemplate(template);
+            return ResponseEntity.ok(createdTemplate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Flight> createFlight(@RequestBody Flight flight) {
-        Flight createdFlight = flightService.createFlight(flight);
-        return ResponseEntity.ok(createdFlight);
+    public ResponseEntity<?> createFlight(@RequestBody Flight flight) {
+        try {
+            Flight createdFlight = flightService.createFlight(flight);
+            return ResponseEntity.ok(createdFlight);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importFlights(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body) {
+        FlightImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+            ? FlightImportService.Format.CSV
+            : FlightImportService.Format.NDJSON;
+        try {
+            FlightImportResult result = flightService.importFlights(body, format);
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Could not read import: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/schedules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createSchedule(@RequestBody FlightSchedule schedule) {
+        try {
+            FlightSchedule createdSchedule = flightService.createSchedule(schedule);
+            return ResponseEntity.ok(createdSchedule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/schedules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<FlightSchedule>> getSchedules() {
+        return ResponseEntity.ok(flightService.getSchedules());
+    }
+
+    @DeleteMapping("/schedules/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable String id) {
+        boolean deleted = flightService.deleteSchedule(id);
+        return deleted ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
     }
 
     @PutMapping("/{id}")
@@ -64,8 +261,67 @@ public class FlightController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Flight>> getAllFlights() {
-        List<Flight> flights = flightService.getAllFlights();
-        return ResponseEntity.ok(flights);
+    public ResponseEntity<?> getAllFlights(@RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "50") int size) {
+        try {
+            PageResponse<FlightSummary> flights = flightService.getAllFlights(after, size);
+            return ResponseEntity.ok(flights);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/holds")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> holdSeats(@PathVariable String id,
+                                       @Valid @RequestBody SeatHoldRequest holdRequest,
+                                       Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        SeatHold hold = flightService.holdSeats(id, user.getId(), holdRequest.getSeats());
+        return hold != null ? ResponseEntity.ok(hold)
+            : ResponseEntity.status(HttpStatus.CONFLICT).body("One or more selected seats are no longer available");
+    }
+
+    @PostMapping("/{id}/holds/group")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> holdGroupSeats(@PathVariable String id,
+                                            @Valid @RequestBody GroupSeatRequest groupRequest,
+                                            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        try {
+            SeatHold hold = flightService.holdGroupSeats(id, user.getId(), groupRequest.getPartySize(), groupRequest.getSeatType());
+            return hold != null ? ResponseEntity.ok(hold)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body("Not enough seats together for a party of " + groupRequest.getPartySize());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SeatHold> extendHold(@PathVariable String holdId, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        SeatHold hold = flightService.extendHold(holdId, user.getId());
+        return hold != null ? ResponseEntity.ok(hold) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        boolean released = flightService.releaseHold(holdId, user.getId());
+        return released ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> watchSeats(@PathVariable String id) {
+        SseEmitter emitter = flightService.watchSeats(id);
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        return ResponseEntity.ok(flightService.getSearchCacheStats());
     }
-}
\ No newline at end of file
+}
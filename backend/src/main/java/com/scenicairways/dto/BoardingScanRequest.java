@@ -0,0 +1,11 @@
+package com.scenicairways.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class BoardingScanRequest {
+    @NotBlank(message = "Scanned payload is required")
+    private String payload;
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+}
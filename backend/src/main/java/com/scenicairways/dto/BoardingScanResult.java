@@ -0,0 +1,35 @@
+package com.scenicairways.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class BoardingScanResult {
+    private Status status;
+    private String bookingId;
+    private List<String> seats;
+    private Instant boardedAt;
+
+    public enum Status {
+        BOARDED, DUPLICATE, INVALID, WRONG_FLIGHT, NOT_YET_VALID, EXPIRED, CANCELLED
+    }
+
+    public BoardingScanResult(Status status, String bookingId, List<String> seats, Instant boardedAt) {
+        this.status = status;
+        this.bookingId = bookingId;
+        this.seats = seats;
+        this.boardedAt = boardedAt;
+    }
+
+    // Getters and Setters
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getBookingId() { return bookingId; }
+    public void setBookingId(String bookingId) { this.bookingId = bookingId; }
+
+    public List<String> getSeats() { return seats; }
+    public void setSeats(List<String> seats) { this.seats = seats; }
+
+    public Instant getBoardedAt() { return boardedAt; }
+    public void setBoardedAt(Instant boardedAt) { this.boardedAt = boardedAt; }
+}
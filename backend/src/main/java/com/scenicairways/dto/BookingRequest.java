@@ -27,6 +27,8 @@ public class BookingRequest {
     @NotBlank(message = "Contact phone is required")
     private String contactPhone;
 
+    private String holdId;
+
     public static class PassengerDetailRequest {
         @NotBlank(message = "Passenger name is required")
         private String name;
@@ -65,4 +67,6 @@ public class BookingRequest {
     public void setContactEmail(String contactEmail) { this.contactEmail = contactEmail; }
     public String getContactPhone() { return contactPhone; }
     public void setContactPhone(String contactPhone) { this.contactPhone = contactPhone; }
-}
\ No newline at end of file
+    public String getHoldId() { return holdId; }
+    public void setHoldId(String holdId) { this.holdId = holdId; }
+}
@@ -0,0 +1,31 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Booking;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkBookingRequest {
+    // Bookings are selected by flight, by id, or both; currentStatus narrows either
+    private String flightId;
+
+    @Size(max = 1000, message = "At most 1000 booking IDs per request")
+    private List<String> bookingIds;
+
+    private Booking.BookingStatus currentStatus;
+
+    // Target status for a bulk status change
+    private Booking.BookingStatus status;
+
+    public String getFlightId() { return flightId; }
+    public void setFlightId(String flightId) { this.flightId = flightId; }
+
+    public List<String> getBookingIds() { return bookingIds; }
+    public void setBookingIds(List<String> bookingIds) { this.bookingIds = bookingIds; }
+
+    public Booking.BookingStatus getCurrentStatus() { return currentStatus; }
+    public void setCurrentStatus(Booking.BookingStatus currentStatus) { this.currentStatus = currentStatus; }
+
+    public Booking.BookingStatus getStatus() { return status; }
+    public void setStatus(Booking.BookingStatus status) { this.status = status; }
+}
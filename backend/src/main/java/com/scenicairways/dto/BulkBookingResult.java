@@ -0,0 +1,23 @@
+package com.scenicairways.dto;
+
+public class BulkBookingResult {
+    private int matched;
+    private int updated;
+    private int seatsReleased;
+
+    public BulkBookingResult(int matched, int updated, int seatsReleased) {
+        this.matched = matched;
+        this.updated = updated;
+        this.seatsReleased = seatsReleased;
+    }
+
+    // Getters and Setters
+    public int getMatched() { return matched; }
+    public void setMatched(int matched) { this.matched = matched; }
+
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+
+    public int getSeatsReleased() { return seatsReleased; }
+    public void setSeatsReleased(int seatsReleased) { this.seatsReleased = seatsReleased; }
+}
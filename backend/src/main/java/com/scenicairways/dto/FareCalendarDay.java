@@ -0,0 +1,27 @@
+package com.scenicairways.dto;
+
+import java.time.LocalDate;
+
+public class FareCalendarDay {
+    private LocalDate date;
+    private Double minPrice;
+    private int remainingSeats;
+    private int flightCount;
+
+    public FareCalendarDay(LocalDate date, Double minPrice, int remainingSeats, int flightCount) {
+        this.date = date;
+        this.minPrice = minPrice;
+        this.remainingSeats = remainingSeats;
+        this.flightCount = flightCount;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+    public int getRemainingSeats() { return remainingSeats; }
+    public void setRemainingSeats(int remainingSeats) { this.remainingSeats = remainingSeats; }
+    public int getFlightCount() { return flightCount; }
+    public void setFlightCount(int flightCount) { this.flightCount = flightCount; }
+}
@@ -0,0 +1,42 @@
+package com.scenicairways.dto;
+
+import java.util.List;
+
+public class FlightImportResult {
+    private int received;
+    private int inserted;
+    private int failed;
+    private List<RowError> errors;
+
+    public FlightImportResult(int received, int inserted, int failed, List<RowError> errors) {
+        this.received = received;
+        this.inserted = inserted;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    // Getters and Setters
+    public int getReceived() { return received; }
+    public void setReceived(int received) { this.received = received; }
+    public int getInserted() { return inserted; }
+    public void setInserted(int inserted) { this.inserted = inserted; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+}
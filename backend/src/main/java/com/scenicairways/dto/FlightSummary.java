@@ -0,0 +1,90 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Flight;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * List and search view of a flight: everything a result card shows, without the seat layout,
+ * route geometry or descriptions. Repository methods returning this type only fetch these fields.
+ */
+public class FlightSummary {
+    private String id;
+    private String flightNumber;
+    private String departure;
+    private String arrival;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private LocalDate date;
+    private String aircraft;
+    private Flight.ScenicSide scenicSide;
+    private Flight.SunPosition sunPosition;
+    private double price;
+    private int totalSeats;
+    private int availableSeats;
+
+    public static FlightSummary from(Flight flight) {
+        FlightSummary summary = new FlightSummary();
+        summary.setId(flight.getId());
+        summary.setFlightNumber(flight.getFlightNumber());
+        summary.setDeparture(flight.getDeparture());
+        summary.setArrival(flight.getArrival());
+        summary.setDepartureTime(flight.getDepartureTime());
+        summary.setArrivalTime(flight.getArrivalTime());
+        summary.setDate(flight.getDate());
+        summary.setAircraft(flight.getAircraft());
+        summary.setScenicSide(flight.getScenicSide());
+        summary.setSunPosition(flight.getSunPosition());
+        summary.setPrice(flight.getPrice());
+        summary.setTotalSeats(flight.getTotalSeats());
+        summary.setAvailableSeats(flight.getAvailableSeats());
+        return summary;
+    }
+
+    public FlightSummary copy() {
+        FlightSummary copy = new FlightSummary();
+        copy.setId(id);
+        copy.setFlightNumber(flightNumber);
+        copy.setDeparture(departure);
+        copy.setArrival(arrival);
+        copy.setDepartureTime(departureTime);
+        copy.setArrivalTime(arrivalTime);
+        copy.setDate(date);
+        copy.setAircraft(aircraft);
+        copy.setScenicSide(scenicSide);
+        copy.setSunPosition(sunPosition);
+        copy.setPrice(price);
+        copy.setTotalSeats(totalSeats);
+        copy.setAvailableSeats(availableSeats);
+        return copy;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFlightNumber() { return flightNumber; }
+    public void setFlightNumber(String flightNumber) { this.flightNumber = flightNumber; }
+    public String getDeparture() { return departure; }
+    public void setDeparture(String departure) { this.departure = departure; }
+    public String getArrival() { return arrival; }
+    public void setArrival(String arrival) { this.arrival = arrival; }
+    public LocalTime getDepartureTime() { return departureTime; }
+    public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
+    public LocalTime getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(LocalTime arrivalTime) { this.arrivalTime = arrivalTime; }
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    public String getAircraft() { return aircraft; }
+    public void setAircraft(String aircraft) { this.aircraft = aircraft; }
+    public Flight.ScenicSide getScenicSide() { return scenicSide; }
+    public void setScenicSide(Flight.ScenicSide scenicSide) { this.scenicSide = scenicSide; }
+    public Flight.SunPosition getSunPosition() { return sunPosition; }
+    public void setSunPosition(Flight.SunPosition sunPosition) { this.sunPosition = sunPosition; }
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+    public int getTotalSeats() { return totalSeats; }
+    public void setTotalSeats(int totalSeats) { this.totalSeats = totalSeats; }
+    public int getAvailableSeats() { return availableSeats; }
+    public void setAvailableSeats(int availableSeats) { this.availableSeats = availableSeats; }
+}
@@ -0,0 +1,18 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Flight;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public class GroupSeatRequest {
+    @Min(value = 1, message = "Party size must be at least 1")
+    @Max(value = 9, message = "Party size must be at most 9")
+    private int partySize;
+
+    private Flight.Seat.SeatType seatType;
+
+    public int getPartySize() { return partySize; }
+    public void setPartySize(int partySize) { this.partySize = partySize; }
+    public Flight.Seat.SeatType getSeatType() { return seatType; }
+    public void setSeatType(Flight.Seat.SeatType seatType) { this.seatType = seatType; }
+}
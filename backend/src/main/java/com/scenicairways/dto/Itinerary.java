@@ -0,0 +1,32 @@
+package com.scenicairways.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class Itinerary {
+    private List<FlightSummary> legs;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private double totalPrice;
+    private long durationMinutes;
+
+    public Itinerary(List<FlightSummary> legs, LocalDateTime departure, LocalDateTime arrival, double totalPrice, long durationMinutes) {
+        this.legs = legs;
+        this.departure = departure;
+        this.arrival = arrival;
+        this.totalPrice = totalPrice;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters and Setters
+    public List<FlightSummary> getLegs() { return legs; }
+    public void setLegs(List<FlightSummary> legs) { this.legs = legs; }
+    public LocalDateTime getDeparture() { return departure; }
+    public void setDeparture(LocalDateTime departure) { this.departure = departure; }
+    public LocalDateTime getArrival() { return arrival; }
+    public void setArrival(LocalDateTime arrival) { this.arrival = arrival; }
+    public double getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+    public long getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(long durationMinutes) { this.durationMinutes = durationMinutes; }
+}
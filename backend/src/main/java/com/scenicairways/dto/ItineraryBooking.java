@@ -0,0 +1,27 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Booking;
+
+import java.util.List;
+
+public class ItineraryBooking {
+    private String itineraryId;
+    private List<Booking> legs;
+    private double totalPrice;
+
+    public ItineraryBooking(String itineraryId, List<Booking> legs, double totalPrice) {
+        this.itineraryId = itineraryId;
+        this.legs = legs;
+        this.totalPrice = totalPrice;
+    }
+
+    // Getters and Setters
+    public String getItineraryId() { return itineraryId; }
+    public void setItineraryId(String itineraryId) { this.itineraryId = itineraryId; }
+
+    public List<Booking> getLegs() { return legs; }
+    public void setLegs(List<Booking> legs) { this.legs = legs; }
+
+    public double getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+}
@@ -0,0 +1,17 @@
+package com.scenicairways.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ItineraryBookingRequest {
+    @Valid
+    @NotEmpty(message = "At least one leg is required")
+    @Size(max = 6, message = "An itinerary can have at most 6 legs")
+    private List<BookingRequest> legs;
+
+    public List<BookingRequest> getLegs() { return legs; }
+    public void setLegs(List<BookingRequest> legs) { this.legs = legs; }
+}
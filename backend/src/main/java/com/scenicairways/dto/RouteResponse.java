@@ -0,0 +1,25 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Flight;
+
+import java.util.List;
+
+public class RouteResponse {
+    private String level;
+    private String polyline;
+    private List<Flight.RoutePoint> markers;
+
+    public RouteResponse(String level, String polyline, List<Flight.RoutePoint> markers) {
+        this.level = level;
+        this.polyline = polyline;
+        this.markers = markers;
+    }
+
+    // Getters and Setters
+    public String getLevel() { return level; }
+    public void setLevel(String level) { this.level = level; }
+    public String getPolyline() { return polyline; }
+    public void setPolyline(String polyline) { this.polyline = polyline; }
+    public List<Flight.RoutePoint> getMarkers() { return markers; }
+    public void setMarkers(List<Flight.RoutePoint> markers) { this.markers = markers; }
+}
@@ -0,0 +1,13 @@
+package com.scenicairways.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class SeatHoldRequest {
+    @NotEmpty(message = "At least one seat must be selected")
+    private List<String> seats;
+
+    public List<String> getSeats() { return seats; }
+    public void setSeats(List<String> seats) { this.seats = seats; }
+}
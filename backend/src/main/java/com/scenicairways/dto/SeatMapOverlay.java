@@ -0,0 +1,28 @@
+package com.scenicairways.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class SeatMapOverlay {
+    private String templateId;
+    private List<String> takenSeats;
+    private Map<String, Double> priceOverrides;
+    private int availableSeats;
+
+    public SeatMapOverlay(String templateId, List<String> takenSeats, Map<String, Double> priceOverrides, int availableSeats) {
+        this.templateId = templateId;
+        this.takenSeats = takenSeats;
+        this.priceOverrides = priceOverrides;
+        this.availableSeats = availableSeats;
+    }
+
+    // Getters and Setters
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
+    public List<String> getTakenSeats() { return takenSeats; }
+    public void setTakenSeats(List<String> takenSeats) { this.takenSeats = takenSeats; }
+    public Map<String, Double> getPriceOverrides() { return priceOverrides; }
+    public void setPriceOverrides(Map<String, Double> priceOverrides) { this.priceOverrides = priceOverrides; }
+    public int getAvailableSeats() { return availableSeats; }
+    public void setAvailableSeats(int availableSeats) { this.availableSeats = availableSeats; }
+}
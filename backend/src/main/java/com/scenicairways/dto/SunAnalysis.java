@@ -0,0 +1,38 @@
+package com.scenicairways.dto;
+
+import com.scenicairways.model.Flight;
+
+import java.time.LocalTime;
+
+public class SunAnalysis {
+    private Flight.SunPosition sunPosition;
+    private Flight.ScenicSide scenicSide;
+    private LocalTime goldenHourStart;
+    private LocalTime goldenHourEnd;
+    private int leftSideMinutes;
+    private int rightSideMinutes;
+
+    public SunAnalysis(Flight.SunPosition sunPosition, Flight.ScenicSide scenicSide, LocalTime goldenHourStart,
+                       LocalTime goldenHourEnd, int leftSideMinutes, int rightSideMinutes) {
+        this.sunPosition = sunPosition;
+        this.scenicSide = scenicSide;
+        this.goldenHourStart = goldenHourStart;
+        this.goldenHourEnd = goldenHourEnd;
+        this.leftSideMinutes = leftSideMinutes;
+        this.rightSideMinutes = rightSideMinutes;
+    }
+
+    // Getters and Setters
+    public Flight.SunPosition getSunPosition() { return sunPosition; }
+    public void setSunPosition(Flight.SunPosition sunPosition) { this.sunPosition = sunPosition; }
+    public Flight.ScenicSide getScenicSide() { return scenicSide; }
+    public void setScenicSide(Flight.ScenicSide scenicSide) { this.scenicSide = scenicSide; }
+    public LocalTime getGoldenHourStart() { return goldenHourStart; }
+    public void setGoldenHourStart(LocalTime goldenHourStart) { this.goldenHourStart = goldenHourStart; }
+    public LocalTime getGoldenHourEnd() { return goldenHourEnd; }
+    public void setGoldenHourEnd(LocalTime goldenHourEnd) { this.goldenHourEnd = goldenHourEnd; }
+    public int getLeftSideMinutes() { return leftSideMinutes; }
+    public void setLeftSideMinutes(int leftSideMinutes) { this.leftSideMinutes = leftSideMinutes; }
+    public int getRightSideMinutes() { return rightSideMinutes; }
+    public void setRightSideMinutes(int rightSideMinutes) { this.rightSideMinutes = rightSideMinutes; }
+}
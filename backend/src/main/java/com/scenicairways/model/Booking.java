@@ -1,17 +1,32 @@
 package com.scenicairways.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.UUID;
 
 @Document(collection = "bookings")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_idx", def = "{'userId': 1, '_id': 1}"),
+    @CompoundIndex(name = "flight_status_idx", def = "{'flightId': 1, 'status': 1}"),
+    @CompoundIndex(name = "status_idx", def = "{'status': 1}"),
+    @CompoundIndex(name = "itinerary_idx", def = "{'itineraryId': 1, '_id': 1}", sparse = true),
+    // Events of a booking go out in order, so only the first one decides when the booking is due
+    @CompoundIndex(name = "outbox_head_due_idx", def = "{'outbox.0.nextAttemptAt': 1}", sparse = true)
+})
 public class Booking {
     @Id
     private String id;
     private String userId;
     private String flightId;
+    private String itineraryId;
     private List<String> seats;
     private double totalPrice;
     private BookingStatus status;
@@ -20,8 +35,15 @@ public class Booking {
     private String contactEmail;
     private String contactPhone;
     private String qrCode;
+    // Operation that cancelled the booking; a bulk cancel uses it to tell which bookings it won
+    private String cancellationId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @JsonIgnore
+    private List<OutboxEvent> outbox;
+    // Events that failed too often, moved out of the outbox so they don't hold up the ones behind them
+    @JsonIgnore
+    private List<OutboxEvent> parkedOutbox;
 
     public enum BookingStatus {
         PENDING, CONFIRMED, CANCELLED, COMPLETED
@@ -48,6 +70,88 @@ public class Booking {
         public void setSeatNumber(String seatNumber) { this.seatNumber = seatNumber; }
     }
 
+    /**
+     * Side effect still owed for a change to this booking. Events are stored in the booking itself so
+     * the change and its events are written in one document update, which Mongo applies atomically
+     * without a transaction on every booking write; the outbox dispatcher removes each one once it has
+     * been delivered.
+     */
+    public static class OutboxEvent {
+        private String eventId;
+        private EventType type;
+        private int attempts;
+        private LocalDateTime nextAttemptAt;
+        private String lastError;
+        private LocalDateTime createdAt;
+        // Flight as it was and as it is now, for events about a flight that may no longer exist
+        private FlightChange flightChange;
+
+        public enum EventType {
+            BOOKING_CONFIRMED, ITINERARY_CONFIRMED, STATUS_CHANGED, BOOKING_CANCELLED,
+            FLIGHT_CANCELLED, FLIGHT_RESCHEDULED
+        }
+
+        public OutboxEvent() {
+        }
+
+        public OutboxEvent(EventType type) {
+            this.eventId = UUID.randomUUID().toString();
+            this.type = type;
+            this.createdAt = LocalDateTime.now();
+            this.nextAttemptAt = this.createdAt;
+        }
+
+        public OutboxEvent(EventType type, FlightChange flightChange) {
+            this(type);
+            this.flightChange = flightChange;
+        }
+
+        // Getters and Setters
+        public String getEventId() { return eventId; }
+        public void setEventId(String eventId) { this.eventId = eventId; }
+        public EventType getType() { return type; }
+        public void setType(EventType type) { this.type = type; }
+        public int getAttempts() { return attempts; }
+        public void setAttempts(int attempts) { this.attempts = attempts; }
+        public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+        public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+        public String getLastError() { return lastError; }
+        public void setLastError(String lastError) { this.lastError = lastError; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        public FlightChange getFlightChange() { return flightChange; }
+        public void setFlightChange(FlightChange flightChange) { this.flightChange = flightChange; }
+    }
+
+    public static class FlightChange {
+        private String flightNumber;
+        private String departure;
+        private String arrival;
+        private LocalDate previousDate;
+        private LocalTime previousDepartureTime;
+        private LocalDate date;
+        private LocalTime departureTime;
+        private LocalTime arrivalTime;
+
+        // Getters and Setters
+        public String getFlightNumber() { return flightNumber; }
+        public void setFlightNumber(String flightNumber) { this.flightNumber = flightNumber; }
+        public String getDeparture() { return departure; }
+        public void setDeparture(String departure) { this.departure = departure; }
+        public String getArrival() { return arrival; }
+        public void setArrival(String arrival) { this.arrival = arrival; }
+        public LocalDate getPreviousDate() { return previousDate; }
+        public void setPreviousDate(LocalDate previousDate) { this.previousDate = previousDate; }
+        public LocalTime getPreviousDepartureTime() { return previousDepartureTime; }
+        public void setPreviousDepartureTime(LocalTime previousDepartureTime) { this.previousDepartureTime = previousDepartureTime; }
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        public LocalTime getDepartureTime() { return departureTime; }
+        public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
+        public LocalTime getArrivalTime() { return arrivalTime; }
+        public void setArrivalTime(LocalTime arrivalTime) { this.arrivalTime = arrivalTime; }
+    }
+
     public Booking() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -65,6 +169,9 @@ public class Booking {
     public String getFlightId() { return flightId; }
     public void setFlightId(String flightId) { this.flightId = flightId; }
 
+    public String getItineraryId() { return itineraryId; }
+    public void setItineraryId(String itineraryId) { this.itineraryId = itineraryId; }
+
     public List<String> getSeats() { return seats; }
     public void setSeats(List<String> seats) { this.seats = seats; }
 
@@ -89,9 +196,18 @@ public class Booking {
     public String getQrCode() { return qrCode; }
     public void setQrCode(String qrCode) { this.qrCode = qrCode; }
 
+    public String getCancellationId() { return cancellationId; }
+    public void setCancellationId(String cancellationId) { this.cancellationId = cancellationId; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public List<OutboxEvent> getOutbox() { return outbox; }
+    public void setOutbox(List<OutboxEvent> outbox) { this.outbox = outbox; }
+
+    public List<OutboxEvent> getParkedOutbox() { return parkedOutbox; }
+    public void setParkedOutbox(List<OutboxEvent> parkedOutbox) { this.parkedOutbox = parkedOutbox; }
 }
\ No newline at end of file
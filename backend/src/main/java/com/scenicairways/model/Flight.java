@@ -1,14 +1,26 @@
 package com.scenicairways.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "flights")
+@CompoundIndexes({
+    @CompoundIndex(name = "route_date_idx", def = "{'departure': 1, 'arrival': 1, 'date': 1}"),
+    @CompoundIndex(name = "date_idx", def = "{'date': 1}"),
+    @CompoundIndex(name = "available_date_idx", def = "{'date': 1, '_id': 1}",
+        partialFilter = "{'availableSeats': {'$gt': 0}}"),
+    @CompoundIndex(name = "schedule_date_idx", def = "{'scheduleId': 1, 'date': 1}", unique = true,
+        partialFilter = "{'scheduleId': {'$exists': true}}")
+})
 public class Flight {
     @Id
     private String id;
@@ -30,6 +42,13 @@ public class Flight {
     private SunPosition sunPosition;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private String scheduleId;
+    private String seatMapTemplateId;
+    private List<String> takenSeats;
+    private Map<String, Double> seatPriceOverrides;
+    // Served per level by the route endpoint rather than with every flight
+    @JsonIgnore
+    private Map<String, String> routePolylines;
 
     public enum ScenicSide {
         LEFT, RIGHT, BOTH
@@ -160,4 +179,19 @@ public class Flight {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-}
\ No newline at end of file
+
+    public String getScheduleId() { return scheduleId; }
+    public void setScheduleId(String scheduleId) { this.scheduleId = scheduleId; }
+
+    public String getSeatMapTemplateId() { return seatMapTemplateId; }
+    public void setSeatMapTemplateId(String seatMapTemplateId) { this.seatMapTemplateId = seatMapTemplateId; }
+
+    public List<String> getTakenSeats() { return takenSeats; }
+    public void setTakenSeats(List<String> takenSeats) { this.takenSeats = takenSeats; }
+
+    public Map<String, Double> getSeatPriceOverrides() { return seatPriceOverrides; }
+    public void setSeatPriceOverrides(Map<String, Double> seatPriceOverrides) { this.seatPriceOverrides = seatPriceOverrides; }
+
+    public Map<String, String> getRoutePolylines() { return routePolylines; }
+    public void setRoutePolylines(Map<String, String> routePolylines) { this.routePolylines = routePolylines; }
+}
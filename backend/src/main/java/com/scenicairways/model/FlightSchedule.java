@@ -0,0 +1,112 @@
+package com.scenicairways.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A recurring departure. Dated {@link Flight}s are materialized from it on demand and
+ * point back to it through {@link Flight#getScheduleId()}.
+ */
+@Document(collection = "flight_schedules")
+public class FlightSchedule {
+    @Id
+    private String id;
+    private String flightNumber;
+    private String departure;
+    private String arrival;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private Set<DayOfWeek> daysOfWeek;
+    private LocalDate validFrom;
+    private LocalDate validTo;
+    private String aircraft;
+    private Flight.ScenicSide scenicSide;
+    private String scenicDescription;
+    private double price;
+    private int totalSeats;
+    private List<Flight.SeatRow> seatLayout;
+    private List<Flight.RoutePoint> route;
+    private Flight.SunPosition sunPosition;
+    // Occurrences an admin deleted; never materialized again
+    private Set<LocalDate> cancelledDates;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public FlightSchedule() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean operatesOn(LocalDate date) {
+        return !date.isBefore(validFrom) && !date.isAfter(validTo) && daysOfWeek.contains(date.getDayOfWeek())
+            && (cancelledDates == null || !cancelledDates.contains(date));
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFlightNumber() { return flightNumber; }
+    public void setFlightNumber(String flightNumber) { this.flightNumber = flightNumber; }
+
+    public String getDeparture() { return departure; }
+    public void setDeparture(String departure) { this.departure = departure; }
+
+    public String getArrival() { return arrival; }
+    public void setArrival(String arrival) { this.arrival = arrival; }
+
+    public LocalTime getDepartureTime() { return departureTime; }
+    public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
+
+    public LocalTime getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(LocalTime arrivalTime) { this.arrivalTime = arrivalTime; }
+
+    public Set<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public LocalDate getValidFrom() { return validFrom; }
+    public void setValidFrom(LocalDate validFrom) { this.validFrom = validFrom; }
+
+    public LocalDate getValidTo() { return validTo; }
+    public void setValidTo(LocalDate validTo) { this.validTo = validTo; }
+
+    public String getAircraft() { return aircraft; }
+    public void setAircraft(String aircraft) { this.aircraft = aircraft; }
+
+    public Flight.ScenicSide getScenicSide() { return scenicSide; }
+    public void setScenicSide(Flight.ScenicSide scenicSide) { this.scenicSide = scenicSide; }
+
+    public String getScenicDescription() { return scenicDescription; }
+    public void setScenicDescription(String scenicDescription) { this.scenicDescription = scenicDescription; }
+
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+
+    public int getTotalSeats() { return totalSeats; }
+    public void setTotalSeats(int totalSeats) { this.totalSeats = totalSeats; }
+
+    public List<Flight.SeatRow> getSeatLayout() { return seatLayout; }
+    public void setSeatLayout(List<Flight.SeatRow> seatLayout) { this.seatLayout = seatLayout; }
+
+    public List<Flight.RoutePoint> getRoute() { return route; }
+    public void setRoute(List<Flight.RoutePoint> route) { this.route = route; }
+
+    public Flight.SunPosition getSunPosition() { return sunPosition; }
+    public void setSunPosition(Flight.SunPosition sunPosition) { this.sunPosition = sunPosition; }
+
+    public Set<LocalDate> getCancelledDates() { return cancelledDates; }
+    public void setCancelledDates(Set<LocalDate> cancelledDates) { this.cancelledDates = cancelledDates; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,30 @@
+package com.scenicairways.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim on one of the node ids used by the booking id generator. The owning instance renews it while
+ * running; Mongo's TTL monitor removes it once it expires.
+ */
+@Document(collection = "node_leases")
+public class NodeLease {
+    @Id
+    private int id;
+    private String owner;
+    @Indexed(name = "expires_idx", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,47 @@
+package com.scenicairways.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Seat map shared by every flight of an aircraft type. Templates are never modified once saved;
+ * a layout change is a new version, so flights already referencing the old one are unaffected.
+ */
+@Document(collection = "seat_map_templates")
+@CompoundIndex(name = "aircraft_version_idx", def = "{'aircraft': 1, 'version': -1}", unique = true)
+public class SeatMapTemplate {
+    @Id
+    private String id;
+    private String aircraft;
+    private int version;
+    private List<Flight.SeatRow> rows;
+    private int totalSeats;
+    private LocalDateTime createdAt;
+
+    public SeatMapTemplate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getAircraft() { return aircraft; }
+    public void setAircraft(String aircraft) { this.aircraft = aircraft; }
+
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    public List<Flight.SeatRow> getRows() { return rows; }
+    public void setRows(List<Flight.SeatRow> rows) { this.rows = rows; }
+
+    public int getTotalSeats() { return totalSeats; }
+    public void setTotalSeats(int totalSeats) { this.totalSeats = totalSeats; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -1,14 +1,28 @@
 package com.scenicairways.repository;
 
 import com.scenicairways.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends MongoRepository<Booking, String> {
     List<Booking> findByUserId(String userId);
     List<Booking> findByFlightId(String flightId);
     List<Booking> findByStatus(Booking.BookingStatus status);
+    List<Booking> findByItineraryIdOrderByIdAsc(String itineraryId);
+
+    // Cursor over a flight's live bookings for cascades; only the fields the cascade needs
+    @Query(fields = "{ 'flightId' : 1, 'status' : 1 }")
+    Stream<Booking> streamByFlightIdAndStatusNot(String flightId, Booking.BookingStatus status);
+
+    // Keyset pagination: callers pass the id of the last booking seen
+    List<Booking> findAllBy(Pageable pageable);
+    List<Booking> findByIdGreaterThan(String id, Pageable pageable);
+    List<Booking> findByUserId(String userId, Pageable pageable);
+    List<Booking> findByUserIdAndIdGreaterThan(String userId, String id, Pageable pageable);
 }
\ No newline at end of file
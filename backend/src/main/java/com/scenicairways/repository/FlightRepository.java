@@ -1,19 +1,46 @@
 package com.scenicairways.repository;
 
+import com.scenicairways.dto.FlightSummary;
 import com.scenicairways.model.Flight;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FlightRepository extends MongoRepository<Flight, String> {
-    List<Flight> findByDepartureAndArrivalAndDate(String departure, String arrival, LocalDate date);
-    List<Flight> findByDepartureContainingIgnoreCaseAndArrivalContainingIgnoreCase(String departure, String arrival);
+    // Field projection matching FlightSummary, for the string-based queries below
+    String SUMMARY_FIELDS = "{ 'flightNumber' : 1, 'departure' : 1, 'arrival' : 1, 'departureTime' : 1, 'arrivalTime' : 1, "
+        + "'date' : 1, 'aircraft' : 1, 'scenicSide' : 1, 'sunPosition' : 1, 'price' : 1, 'totalSeats' : 1, 'availableSeats' : 1 }";
+
+    List<FlightSummary> findByDepartureAndArrivalAndDate(String departure, String arrival, LocalDate date);
+    List<FlightSummary> findByDepartureContainingIgnoreCaseAndArrivalContainingIgnoreCase(String departure, String arrival);
     List<Flight> findByDateGreaterThanEqual(LocalDate date);
+    List<FlightSummary> findSummariesBy();
     
     @Query("{ 'date' : { $gte: ?0 }, 'availableSeats' : { $gt: 0 } }")
     List<Flight> findAvailableFlights(LocalDate fromDate);
-}
\ No newline at end of file
+
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'seatLayout' : 1, 'seatMapTemplateId' : 1, 'takenSeats' : 1, 'seatPriceOverrides' : 1, 'availableSeats' : 1 }")
+    Flight findSeatLayoutById(String id);
+
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'route' : 1, 'routePolylines' : 1 }")
+    Flight findRouteById(String id);
+
+    Optional<Flight> findByScheduleIdAndDate(String scheduleId, LocalDate date);
+
+    // Keyset pagination: callers pass the sort key of the last item seen
+    List<FlightSummary> findAllBy(Pageable pageable);
+    List<FlightSummary> findByIdGreaterThan(String id, Pageable pageable);
+
+    @Query(value = "{ 'date' : { $gte: ?0 }, 'availableSeats' : { $gt: 0 } }", fields = SUMMARY_FIELDS)
+    List<FlightSummary> findAvailableFlights(LocalDate fromDate, Pageable pageable);
+
+    @Query(value = "{ 'date' : { $gte: ?0 }, 'availableSeats' : { $gt: 0 }, $or: [ { 'date' : { $gt: ?1 } }, { 'date' : ?1, '_id' : { $gt: ?2 } } ] }",
+        fields = SUMMARY_FIELDS)
+    List<FlightSummary> findAvailableFlightsAfter(LocalDate fromDate, LocalDate afterDate, String afterId, Pageable pageable);
+}
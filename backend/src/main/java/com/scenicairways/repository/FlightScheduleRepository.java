@@ -0,0 +1,9 @@
+package com.scenicairways.repository;
+
+import com.scenicairways.model.FlightSchedule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FlightScheduleRepository extends MongoRepository<FlightSchedule, String> {
+}
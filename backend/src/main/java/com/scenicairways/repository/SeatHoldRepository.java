@@ -0,0 +1,9 @@
+package com.scenicairways.repository;
+
+import com.scenicairways.model.SeatHold;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeatHoldRepository extends MongoRepository<SeatHold, String> {
+}
@@ -0,0 +1,12 @@
+package com.scenicairways.repository;
+
+import com.scenicairways.model.SeatMapTemplate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SeatMapTemplateRepository extends MongoRepository<SeatMapTemplate, String> {
+    Optional<SeatMapTemplate> findFirstByAircraftOrderByVersionDesc(String aircraft);
+}
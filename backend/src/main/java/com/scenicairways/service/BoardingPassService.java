@@ -0,0 +1,296 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.BoardingScanResult;
+import com.scenicairways.model.Booking;
+import com.scenicairways.model.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signed boarding passes and gate scanning. A pass is a small binary record (booking, flight, seats and
+ * the window in which it may be scanned) with a truncated HMAC-SHA256 tag, so a gate can check it without
+ * reading the booking. Each flight being boarded gets an in-memory manifest of passes already scanned and
+ * bookings cancelled since issue. The cancellations are read when the manifest is created, applied at
+ * once by {@link #revoke} for cancellations made on this node, and re-read every few seconds for those
+ * made on other nodes. Scans are recorded per node, so one flight's gates should share a node.
+ */
+@Service
+public class BoardingPassService {
+
+    private static final String PREFIX = "BP1:";
+    private static final byte VERSION = 1;
+    private static final int TAG_BYTES = 16;
+    private static final Duration MANIFEST_IDLE = Duration.ofHours(6);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Value("${app.boarding-pass.secret}")
+    private String secret;
+
+    @Value("${app.boarding-pass.zone-id:Asia/Kolkata}")
+    private String zoneId;
+
+    @Value("${app.boarding-pass.opens-hours:24}")
+    private long opensHours;
+
+    @Value("${app.boarding-pass.closes-minutes:60}")
+    private long closesMinutes;
+
+    private SecretKeySpec key;
+    private ZoneId zone;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    private final Map<String, Manifest> manifests = new ConcurrentHashMap<>();
+
+    public record BoardingPass(String bookingId, String flightId, List<String> seats, Instant validFrom, Instant validUntil) {
+    }
+
+    private static class Manifest {
+        final Map<String, Instant> boarded = new ConcurrentHashMap<>();
+        final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+        volatile Instant lastUsed = Instant.now();
+    }
+
+    @PostConstruct
+    public void init() {
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        zone = ZoneId.of(zoneId);
+        newMac();
+    }
+
+    public String encode(Booking booking) {
+        Flight flight = flightService.getFlightById(booking.getFlightId())
+            .orElseThrow(() -> new IllegalStateException("Flight not found for booking " + booking.getId()));
+        return encode(booking, flight);
+    }
+
+    /** QR text for a booking: the signed pass, base64url encoded behind a version prefix. */
+    public String encode(Booking booking, Flight flight) {
+        if (booking.getSeats().size() > 255) {
+            throw new IllegalArgumentException("Too many seats for one boarding pass");
+        }
+        Instant departure = flight.getDate().atTime(flight.getDepartureTime()).atZone(zone).toInstant();
+        Instant validFrom = departure.minus(Duration.ofHours(opensHours));
+        Instant validUntil = departure.plus(Duration.ofMinutes(closesMinutes));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        writeId(out, booking.getId());
+        writeId(out, flight.getId());
+        out.write(booking.getSeats().size());
+        for (String seat : booking.getSeats()) {
+            writeString(out, seat);
+        }
+        writeSeconds(out, validFrom);
+        writeSeconds(out, validUntil);
+
+        byte[] body = out.toByteArray();
+        byte[] pass = Arrays.copyOf(body, body.length + TAG_BYTES);
+        System.arraycopy(tag(body), 0, pass, body.length, TAG_BYTES);
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(pass);
+    }
+
+    /** Returns the pass if the text is a well-formed pass with a valid signature, otherwise null. */
+    public BoardingPass decode(String text) {
+        if (text == null || !text.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            byte[] pass = Base64.getUrlDecoder().decode(text.substring(PREFIX.length()));
+            if (pass.length <= TAG_BYTES) {
+                return null;
+            }
+            byte[] body = Arrays.copyOf(pass, pass.length - TAG_BYTES);
+            byte[] tag = Arrays.copyOfRange(pass, body.length, pass.length);
+            if (!MessageDigest.isEqual(tag, Arrays.copyOf(tag(body), TAG_BYTES))) {
+                return null;
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(body);
+            if (in.get() != VERSION) {
+                return null;
+            }
+            String bookingId = readId(in);
+            String flightId = readId(in);
+            int seatCount = Byte.toUnsignedInt(in.get());
+            List<String> seats = new ArrayList<>(seatCount);
+            for (int i = 0; i < seatCount; i++) {
+                seats.add(readString(in));
+            }
+            Instant validFrom = readSeconds(in);
+            Instant validUntil = readSeconds(in);
+            return in.hasRemaining() ? null : new BoardingPass(bookingId, flightId, seats, validFrom, validUntil);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks a scanned pass at the gate of the given flight and records it as boarded. Only the first
+     * scan of a booking boards; later scans report when it boarded.
+     */
+    public BoardingScanResult scan(String flightId, String payload) {
+        BoardingPass pass = decode(payload);
+        if (pass == null) {
+            return new BoardingScanResult(BoardingScanResult.Status.INVALID, null, null, null);
+        }
+        if (!pass.flightId().equals(flightId)) {
+            return result(BoardingScanResult.Status.WRONG_FLIGHT, pass, null);
+        }
+        Instant now = Instant.now();
+        if (now.isBefore(pass.validFrom())) {
+            return result(BoardingScanResult.Status.NOT_YET_VALID, pass, null);
+        }
+        if (now.isAfter(pass.validUntil())) {
+            return result(BoardingScanResult.Status.EXPIRED, pass, null);
+        }
+
+        Manifest manifest = manifests.computeIfAbsent(flightId, this::loadManifest);
+        manifest.lastUsed = now;
+        if (manifest.cancelled.contains(pass.bookingId())) {
+            return result(BoardingScanResult.Status.CANCELLED, pass, null);
+        }
+        Instant boardedAt = manifest.boarded.putIfAbsent(pass.bookingId(), now);
+        return boardedAt == null
+            ? result(BoardingScanResult.Status.BOARDED, pass, now)
+            : result(BoardingScanResult.Status.DUPLICATE, pass, boardedAt);
+    }
+
+    /** Marks a cancelled booking in the flight's manifest, if the flight is being boarded on this node. */
+    public void revoke(String flightId, String bookingId) {
+        // Waits for a manifest that is still loading, so the cancellation cannot be missed
+        manifests.computeIfPresent(flightId, (id, manifest) -> {
+            manifest.cancelled.add(bookingId);
+            return manifest;
+        });
+    }
+
+    // Picks up cancellations made on other nodes: one indexed read (flight_status_idx) for all manifests
+    @Scheduled(fixedDelayString = "${app.boarding-pass.revocation-refresh-ms:5000}")
+    public void refreshRevocations() {
+        if (manifests.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("flightId").in(manifests.keySet())
+            .and("status").is(Booking.BookingStatus.CANCELLED));
+        query.fields().include("id").include("flightId");
+        for (Booking booking : mongoTemplate.find(query, Booking.class)) {
+            Manifest manifest = manifests.get(booking.getFlightId());
+            if (manifest != null) {
+                manifest.cancelled.add(booking.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 600000)
+    public void evictIdleManifests() {
+        Instant cutoff = Instant.now().minus(MANIFEST_IDLE);
+        manifests.values().removeIf(manifest -> manifest.lastUsed.isBefore(cutoff));
+    }
+
+    // One indexed read per flight (flight_status_idx), never one per scan
+    private Manifest loadManifest(String flightId) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId)
+            .and("status").is(Booking.BookingStatus.CANCELLED));
+        query.fields().include("id");
+        Manifest manifest = new Manifest();
+        for (Booking booking : mongoTemplate.find(query, Booking.class)) {
+            manifest.cancelled.add(booking.getId());
+        }
+        return manifest;
+    }
+
+    private BoardingScanResult result(BoardingScanResult.Status status, BoardingPass pass, Instant boardedAt) {
+        return new BoardingScanResult(status, pass.bookingId(), pass.seats(), boardedAt);
+    }
+
+    private byte[] tag(byte[] body) {
+        return macs.get().doFinal(body);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // Mongo ObjectIds are packed into 12 bytes behind a zero length; anything else is a short string
+    private void writeId(ByteArrayOutputStream out, String id) {
+        if (id.length() == 24 && id.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            out.write(0);
+            out.writeBytes(HexFormat.of().parseHex(id));
+        } else {
+            writeString(out, id);
+        }
+    }
+
+    private String readId(ByteBuffer in) {
+        if (in.get(in.position()) != 0) {
+            return readString(in);
+        }
+        in.get();
+        byte[] objectId = new byte[12];
+        in.get(objectId);
+        return HexFormat.of().formatHex(objectId);
+    }
+
+    private void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0 || bytes.length > 255) {
+            throw new IllegalArgumentException("Boarding pass field must be 1 to 255 bytes: " + value);
+        }
+        out.write(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeSeconds(ByteArrayOutputStream out, Instant instant) {
+        int seconds = (int) instant.getEpochSecond();
+        out.write(seconds >>> 24);
+        out.write(seconds >>> 16);
+        out.write(seconds >>> 8);
+        out.write(seconds);
+    }
+
+    private Instant readSeconds(ByteBuffer in) {
+        return Instant.ofEpochSecond(Integer.toUnsignedLong(in.getInt()));
+    }
+}
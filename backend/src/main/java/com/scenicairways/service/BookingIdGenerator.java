@@ -0,0 +1,158 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.NodeLease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style booking ids: 41 bits of milliseconds since 2024-01-01, a 10-bit node id and a 12-bit
+ * sequence, written as 13 Crockford base32 characters behind "SA" so ids sort in creation order. The
+ * millisecond and sequence share one atomic word; when a millisecond runs out of sequence numbers the
+ * carry moves into the next one, so ids stay unique and increasing without a lock, even if the clock
+ * steps back. Node ids are configured or leased from Mongo so no two running nodes share one; a node
+ * whose lease ran out without renewal stops minting ids, since another node may have taken its id.
+ */
+@Component
+public class BookingIdGenerator {
+
+    private static final String PREFIX = "SA";
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODES = 1 << NODE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    private static final Duration LEASE_TTL = Duration.ofMinutes(10);
+    // Stop short of the lease's end to allow for clock skew with the node that might take it over
+    private static final Duration LEASE_MARGIN = Duration.ofMinutes(1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.booking-id.node-id:-1}")
+    private int configuredNodeId;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong state = new AtomicLong();
+    private volatile long nodeId;
+    // Wall-clock millis after which this node may no longer mint ids with nodeId
+    private volatile long mintUntil = Long.MAX_VALUE;
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId >= MAX_NODES) {
+            throw new IllegalStateException("app.booking-id.node-id must be below " + MAX_NODES);
+        }
+        nodeId = configuredNodeId >= 0 ? configuredNodeId : leaseNodeId();
+        System.out.println("Booking ids use node id " + nodeId);
+    }
+
+    public String nextId() {
+        return encode(PREFIX, next());
+    }
+
+    /** Id from the same sequence under another prefix, e.g. for itineraries. */
+    public String nextId(String prefix) {
+        return encode(prefix, next());
+    }
+
+    public long next() {
+        while (true) {
+            long current = state.get();
+            long wallMillis = System.currentTimeMillis();
+            if (wallMillis >= mintUntil) {
+                throw new IllegalStateException("Booking id node lease " + nodeId + " has expired and could not be renewed");
+            }
+            long now = wallMillis - EPOCH_MILLIS;
+            // A new millisecond restarts the sequence; otherwise bump it and let an overflow carry into the time
+            long updated = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, updated)) {
+                long millis = updated >>> SEQUENCE_BITS;
+                return millis << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | (updated & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public static String encode(String prefix, long id) {
+        char[] encoded = new char[prefix.length() + ENCODED_LENGTH];
+        prefix.getChars(0, prefix.length(), encoded, 0);
+        for (int i = encoded.length - 1; i >= prefix.length(); i--) {
+            encoded[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(encoded);
+    }
+
+    @Scheduled(fixedRate = 60000, initialDelay = 60000)
+    public void renewLease() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+        try {
+            long requestedAt = System.currentTimeMillis();
+            Query mine = Query.query(Criteria.where("id").is((int) nodeId).and("owner").is(instanceId));
+            Update renew = new Update().set("expiresAt", LocalDateTime.now().plus(LEASE_TTL));
+            if (mongoTemplate.updateFirst(mine, renew, NodeLease.class).getModifiedCount() == 0) {
+                // Lost while we could not renew it; move to a free id rather than share this one
+                System.err.println("Lost lease on booking id node " + nodeId + ", leasing a new one");
+                mintUntil = 0;
+                leaseNodeId();
+            } else {
+                leased(nodeId, requestedAt);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not renew booking id node lease: " + e.getMessage()
+                + (System.currentTimeMillis() >= mintUntil ? "; no booking ids can be issued until it is" : ""));
+        }
+    }
+
+    // Counted from before the write, so the local deadline never outlasts the one stored in Mongo. The id
+    // is set first, so minting never pairs a new deadline with the id of a lost lease.
+    private void leased(long leasedNodeId, long requestedAt) {
+        nodeId = leasedNodeId;
+        mintUntil = requestedAt + LEASE_TTL.minus(LEASE_MARGIN).toMillis();
+    }
+
+    private int leaseNodeId() {
+        int start = ThreadLocalRandom.current().nextInt(MAX_NODES);
+        for (int i = 0; i < MAX_NODES; i++) {
+            int candidate = (start + i) % MAX_NODES;
+            long requestedAt = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            NodeLease lease = new NodeLease();
+            lease.setId(candidate);
+            lease.setOwner(instanceId);
+            lease.setExpiresAt(now.plus(LEASE_TTL));
+            try {
+                mongoTemplate.insert(lease);
+                leased(candidate, requestedAt);
+                return candidate;
+            } catch (DuplicateKeyException e) {
+                // Taken, unless it expired and the TTL monitor has not removed it yet
+                Query expired = Query.query(Criteria.where("id").is(candidate).and("expiresAt").lt(now));
+                Update takeOver = new Update().set("owner", instanceId).set("expiresAt", now.plus(LEASE_TTL));
+                if (mongoTemplate.updateFirst(expired, takeOver, NodeLease.class).getModifiedCount() == 1) {
+                    leased(candidate, requestedAt);
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalStateException("All " + MAX_NODES + " booking id node ids are leased");
+    }
+}
@@ -0,0 +1,192 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Booking;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the outbox events stored on bookings: emails today, anything else that has to follow a
+ * booking change later. Each event is leased with a conditional update before it runs, so several nodes
+ * can drain the same outbox; events of one booking are delivered in order, so a booking is due when
+ * the first event in its outbox is. Failures are retried with exponential backoff, and an event that
+ * keeps failing is moved to the parked outbox with its last error. Bookings are handed to a small pool
+ * of senders through a bounded queue, so a cascade over a full flight fans out without unbounded
+ * memory. Polling runs on its own scheduler thread, since a pass waits for its senders.
+ */
+@Service
+public class BookingOutboxDispatcher {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final Duration LEASE = Duration.ofMinutes(2);
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${app.outbox.senders:4}")
+    private int senderCount;
+
+    @Value("${app.outbox.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${app.outbox.poll-ms:1000}")
+    private long pollMillis;
+
+    private ThreadPoolExecutor senders;
+    private ThreadPoolTaskScheduler poller;
+
+    @PostConstruct
+    public void init() {
+        // A full queue makes the polling thread deliver the next booking itself, which slows polling down
+        senders = new ThreadPoolExecutor(senderCount, senderCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        poller = new ThreadPoolTaskScheduler();
+        poller.setPoolSize(1);
+        poller.setThreadNamePrefix("outbox-");
+        poller.initialize();
+        poller.scheduleWithFixedDelay(this::dispatch, Duration.ofMillis(pollMillis));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdown();
+        senders.shutdown();
+    }
+
+    public void dispatch() {
+        List<Booking> bookings;
+        AtomicInteger delivered;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            // Leasing or backing off the first event moves the booking past now, so each pass sees new work only
+            Query due = Query.query(Criteria.where("outbox.0.nextAttemptAt").lte(now))
+                .with(Sort.by("outbox.0.nextAttemptAt"))
+                .limit(BATCH_SIZE);
+            bookings = mongoTemplate.find(due, Booking.class);
+
+            // Bookings go out in parallel; each booking's events stay in order on one sender
+            delivered = new AtomicInteger();
+            List<CompletableFuture<Void>> batch = new ArrayList<>(bookings.size());
+            for (Booking booking : bookings) {
+                AtomicInteger counter = delivered;
+                batch.add(CompletableFuture.runAsync(() -> counter.addAndGet(dispatch(booking, now)), senders));
+            }
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).join();
+            // A full batch where nothing went out (all leased elsewhere or failing) waits for the next poll
+        } while (bookings.size() == BATCH_SIZE && delivered.get() > 0);
+    }
+
+    // Returns how many events were delivered
+    private int dispatch(Booking booking, LocalDateTime now) {
+        int delivered = 0;
+        for (Booking.OutboxEvent event : booking.getOutbox()) {
+            if (event.getNextAttemptAt() == null) {
+                // Parked before parked events left the outbox
+                park(booking, event);
+                continue;
+            }
+            if (event.getNextAttemptAt().isAfter(now) || !lease(booking, event, now)) {
+                break;
+            }
+            if (!deliver(booking, event, now)) {
+                break;
+            }
+            delivered++;
+        }
+        return delivered;
+    }
+
+    // Claims the event by moving its nextAttemptAt forward, only if nobody else did since we read it
+    private boolean lease(Booking booking, Booking.OutboxEvent event, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("id").is(booking.getId())
+            .and("outbox").elemMatch(Criteria.where("eventId").is(event.getEventId())
+                .and("nextAttemptAt").is(event.getNextAttemptAt())));
+        Update update = new Update().set("outbox.$.nextAttemptAt", now.plus(LEASE));
+        return mongoTemplate.updateFirst(query, update, Booking.class).getModifiedCount() == 1;
+    }
+
+    private boolean deliver(Booking booking, Booking.OutboxEvent event, LocalDateTime now) {
+        try {
+            switch (event.getType()) {
+                case BOOKING_CONFIRMED -> emailService.sendBookingConfirmation(booking);
+                case ITINERARY_CONFIRMED -> emailService.sendItineraryConfirmation(itineraryLegs(booking));
+                case STATUS_CHANGED -> emailService.sendBookingStatusUpdate(booking);
+                case BOOKING_CANCELLED -> emailService.sendBookingCancellation(booking);
+                case FLIGHT_CANCELLED -> emailService.sendFlightCancellation(booking, event.getFlightChange());
+                case FLIGHT_RESCHEDULED -> emailService.sendFlightReschedule(booking, event.getFlightChange());
+            }
+        } catch (RuntimeException e) {
+            retryLater(booking, event, now, e);
+            return false;
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(booking.getId())),
+            new Update().pull("outbox", new Document("eventId", event.getEventId())), Booking.class);
+        return true;
+    }
+
+    private List<Booking> itineraryLegs(Booking booking) {
+        Query legs = Query.query(Criteria.where("itineraryId").is(booking.getItineraryId())).with(Sort.by("id"));
+        return mongoTemplate.find(legs, Booking.class);
+    }
+
+    private void retryLater(Booking booking, Booking.OutboxEvent event, LocalDateTime now, RuntimeException error) {
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            System.err.println("Giving up on " + event.getType() + " for booking " + booking.getId()
+                + " after " + attempts + " attempts: " + error.getMessage());
+            event.setAttempts(attempts);
+            event.setLastError(String.valueOf(error.getMessage()));
+            park(booking, event);
+            return;
+        }
+
+        Duration backoff = BASE_BACKOFF.multipliedBy(1L << (attempts - 1));
+        Query query = Query.query(Criteria.where("id").is(booking.getId())
+            .and("outbox.eventId").is(event.getEventId()));
+        Update update = new Update()
+            .set("outbox.$.attempts", attempts)
+            .set("outbox.$.lastError", String.valueOf(error.getMessage()))
+            .set("outbox.$.nextAttemptAt", now.plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+        System.err.println(event.getType() + " for booking " + booking.getId() + " failed (attempt "
+            + attempts + "), retrying: " + error.getMessage());
+        mongoTemplate.updateFirst(query, update, Booking.class);
+    }
+
+    // Moves the event out of the outbox in one update, so the events behind it become due
+    private void park(Booking booking, Booking.OutboxEvent event) {
+        event.setNextAttemptAt(null);
+        Query query = Query.query(Criteria.where("id").is(booking.getId())
+            .and("outbox.eventId").is(event.getEventId()));
+        Update update = new Update()
+            .pull("outbox", new Document("eventId", event.getEventId()))
+            .push("parkedOutbox", event);
+        mongoTemplate.updateFirst(query, update, Booking.class);
+    }
+}
@@ -1,17 +1,37 @@
 package com.scenicairways.service;
 
 import com.scenicairways.dto.BookingRequest;
+import com.scenicairways.dto.BulkBookingRequest;
+import com.scenicairways.dto.BulkBookingResult;
+import com.scenicairways.dto.ItineraryBooking;
+import com.scenicairways.dto.ItineraryBookingRequest;
+import com.scenicairways.dto.PageResponse;
 import com.scenicairways.model.Booking;
 import com.scenicairways.model.Flight;
 import com.scenicairways.repository.BookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 
 @Service
 public class BookingService {
@@ -22,28 +42,147 @@ public class BookingService {
     @Autowired
     private FlightService flightService;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoTransactionManager transactionManager;
+
     @Autowired
     private QRCodeService qrCodeService;
 
     @Autowired
-    private EmailService emailService;
+    private BoardingPassService boardingPassService;
 
     @Autowired
     private PDFService pdfService;
 
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BookingIdGenerator bookingIdGenerator;
+
+    public PageResponse<Booking> getAllBookings(String after, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+        List<Booking> bookings = after == null
+            ? bookingRepository.findAllBy(pageable)
+            : bookingRepository.findByIdGreaterThan(KeysetCursor.decode(after, 1)[0], pageable);
+        return KeysetCursor.toPage(bookings, pageSize, last -> KeysetCursor.encode(last.getId()));
     }
 
-    public List<Booking> getBookingsByUserId(String userId) {
-        return bookingRepository.findByUserId(userId);
+    public PageResponse<Booking> getBookingsByUserId(String userId, String after, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+        List<Booking> bookings = after == null
+            ? bookingRepository.findByUserId(userId, pageable)
+            : bookingRepository.findByUserIdAndIdGreaterThan(userId, KeysetCursor.decode(after, 1)[0], pageable);
+        return KeysetCursor.toPage(bookings, pageSize, last -> KeysetCursor.encode(last.getId()));
     }
 
     public Optional<Booking> getBookingById(String id) {
         return bookingRepository.findById(id);
     }
 
+    /**
+     * Creates the booking once per Idempotency-Key; a retry with the same key and request gets the
+     * original booking back without claiming seats or sending email again.
+     */
+    public IdempotencyService.Outcome<Booking> createBooking(BookingRequest bookingRequest, String userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new IdempotencyService.Outcome<>(createBooking(bookingRequest, userId), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to 255 characters");
+        }
+        return idempotencyService.execute(userId, idempotencyKey, bookingRequest,
+            () -> createBooking(bookingRequest, userId), Booking::getId, bookingRepository::findById);
+    }
+
     public Booking createBooking(BookingRequest bookingRequest, String userId) {
+        Booking booking = toBooking(bookingRequest, userId);
+        claimSeats(booking, bookingRequest.getHoldId(), "");
+        
+        // Save booking with its confirmation email queued in the same write,
+        // handing the seats back if the write fails
+        booking.setOutbox(outboxOf(Booking.OutboxEvent.EventType.BOOKING_CONFIRMED));
+        try {
+            // An insert, so an id that somehow repeats fails instead of overwriting another booking
+            return mongoTemplate.insert(booking);
+        } catch (RuntimeException e) {
+            flightService.releaseSeats(booking.getFlightId(), booking.getSeats());
+            throw e;
+        }
+    }
+
+    /** Books the itinerary once per Idempotency-Key, like {@link #createBooking(BookingRequest, String, String)}. */
+    public IdempotencyService.Outcome<ItineraryBooking> createItinerary(ItineraryBookingRequest request, String userId,
+                                                                        String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new IdempotencyService.Outcome<>(createItinerary(request, userId), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to 255 characters");
+        }
+        return idempotencyService.execute(userId, idempotencyKey, request,
+            () -> createItinerary(request, userId), ItineraryBooking::getItineraryId, this::getItinerary);
+    }
+
+    /**
+     * Books every leg of an itinerary or none. Seats are claimed leg by leg and handed back if a later leg
+     * fails; the bookings are then inserted in one transaction, with one confirmation covering every leg
+     * queued on the last one. Seat claims stay outside the transaction: they are single-document
+     * conditional updates on the busiest documents we have, where a transaction would abort on every
+     * concurrent claim, and they also update this node's seat caches, which a rollback would not undo.
+     */
+    public ItineraryBooking createItinerary(ItineraryBookingRequest request, String userId) {
+        Set<String> flightIds = new HashSet<>();
+        for (BookingRequest leg : request.getLegs()) {
+            if (!flightIds.add(leg.getFlightId())) {
+                throw new IllegalArgumentException("Each flight can appear only once in an itinerary");
+            }
+        }
+
+        String itineraryId = bookingIdGenerator.nextId("IT");
+        List<Booking> bookings = new ArrayList<>();
+        try {
+            for (int i = 0; i < request.getLegs().size(); i++) {
+                BookingRequest leg = request.getLegs().get(i);
+                Booking booking = toBooking(leg, userId);
+                booking.setItineraryId(itineraryId);
+                claimSeats(booking, leg.getHoldId(), "Leg " + (i + 1) + ": ");
+                bookings.add(booking);
+            }
+        } catch (RuntimeException e) {
+            releaseSeats(bookings);
+            throw e;
+        }
+
+        bookings.get(bookings.size() - 1).setOutbox(outboxOf(Booking.OutboxEvent.EventType.ITINERARY_CONFIRMED));
+        try {
+            List<Booking> saved = new TransactionTemplate(transactionManager)
+                .execute(status -> new ArrayList<>(mongoTemplate.insertAll(bookings)));
+            return toItinerary(itineraryId, saved);
+        } catch (RuntimeException e) {
+            // Nothing is left after an abort, but a commit whose outcome is unknown may still have landed
+            mongoTemplate.remove(Query.query(Criteria.where("itineraryId").is(itineraryId)), Booking.class);
+            releaseSeats(bookings);
+            throw e;
+        }
+    }
+
+    public Optional<ItineraryBooking> getItinerary(String itineraryId) {
+        List<Booking> legs = bookingRepository.findByItineraryIdOrderByIdAsc(itineraryId);
+        return legs.isEmpty() ? Optional.empty() : Optional.of(toItinerary(itineraryId, legs));
+    }
+
+    private ItineraryBooking toItinerary(String itineraryId, List<Booking> legs) {
+        double totalPrice = legs.stream().mapToDouble(Booking::getTotalPrice).sum();
+        return new ItineraryBooking(itineraryId, legs, totalPrice);
+    }
+
+    private Booking toBooking(BookingRequest bookingRequest, String userId) {
         Booking booking = new Booking();
         booking.setUserId(userId);
         booking.setFlightId(bookingRequest.getFlightId());
@@ -71,38 +210,47 @@ public class BookingService {
         booking.setBookingDate(LocalDateTime.now());
         booking.setUpdatedAt(LocalDateTime.now());
         
-        // Update seat availability
-        flightService.updateSeatAvailability(booking.getFlightId(), booking.getSeats(), false);
-        
-        // Generate QR code
-        String qrCodeData = generateQRCodeData(booking);
-        String qrCodePath = qrCodeService.generateQRCode(qrCodeData, booking.getId());
-        booking.setQrCode(qrCodePath);
-        
-        // Save booking
-        Booking savedBooking = bookingRepository.save(booking);
-        
-        // Send confirmation email
-        emailService.sendBookingConfirmation(savedBooking);
-        
-        return savedBooking;
+        // The QR image is rendered on demand from the booking
+        booking.setQrCode("/bookings/" + booking.getId() + "/qr");
+        return booking;
+    }
+
+    // Take over the seats from a live hold, or claim them all in one conditional update
+    private void claimSeats(Booking booking, String holdId, String errorPrefix) {
+        if (holdId != null) {
+            if (!flightService.convertHoldToBooking(holdId, booking.getUserId(),
+                    booking.getFlightId(), booking.getSeats())) {
+                throw new IllegalStateException(errorPrefix + "Seat hold has expired or does not match the selected seats");
+            }
+        } else if (!flightService.claimSeats(booking.getFlightId(), booking.getSeats())) {
+            throw new IllegalStateException(errorPrefix + "One or more selected seats are no longer available");
+        }
+    }
+
+    private void releaseSeats(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            flightService.releaseSeats(booking.getFlightId(), booking.getSeats());
+        }
+    }
+
+    private List<Booking.OutboxEvent> outboxOf(Booking.OutboxEvent.EventType type) {
+        List<Booking.OutboxEvent> outbox = new ArrayList<>();
+        outbox.add(new Booking.OutboxEvent(type));
+        return outbox;
     }
 
     public Booking updateBookingStatus(String bookingId, Booking.BookingStatus status) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setStatus(status);
-            booking.setUpdatedAt(LocalDateTime.now());
-            
-            Booking updatedBooking = bookingRepository.save(booking);
-            
-            // Send status update email
-            emailService.sendBookingStatusUpdate(updatedBooking);
-            
-            return updatedBooking;
-        }
-        return null;
+        // Field updates rather than a full save, which could overwrite events the dispatcher just removed
+        Update update = new Update()
+            .set("status", status)
+            .set("updatedAt", LocalDateTime.now())
+            .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.STATUS_CHANGED));
+        Booking booking = mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(bookingId)), update,
+            FindAndModifyOptions.options().returnNew(true), Booking.class);
+        if (booking != null && status == Booking.BookingStatus.CANCELLED) {
+            boardingPassService.revoke(booking.getFlightId(), bookingId);
+        }
+        return booking;
     }
 
     public boolean isBookingOwner(String bookingId, String userId) {
@@ -110,40 +258,146 @@ public class BookingService {
         return booking.isPresent() && booking.get().getUserId().equals(userId);
     }
 
+    public QRCodeService.QRImage renderQrCode(Booking booking) {
+        return qrCodeService.render(boardingPassService.encode(booking));
+    }
+
     public byte[] generateTicketPdf(Booking booking) {
         return pdfService.generateTicketPdf(booking);
     }
 
     public boolean cancelBooking(String bookingId) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setStatus(Booking.BookingStatus.CANCELLED);
-            booking.setUpdatedAt(LocalDateTime.now());
-            
-            // Release seats
-            flightService.updateSeatAvailability(booking.getFlightId(), booking.getSeats(), true);
-            
-            bookingRepository.save(booking);
-            
-            // Send cancellation email
-            emailService.sendBookingCancellation(booking);
-            
-            return true;
-        }
-        return false;
+        // Only the request that moves the booking to CANCELLED releases its seats, so a repeated
+        // cancel can never free seats that were sold again in the meantime
+        Query query = Query.query(Criteria.where("id").is(bookingId)
+            .and("status").ne(Booking.BookingStatus.CANCELLED));
+        Update update = new Update()
+            .set("status", Booking.BookingStatus.CANCELLED)
+            .set("cancellationId", bookingIdGenerator.nextId("CX"))
+            .set("updatedAt", LocalDateTime.now())
+            .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.BOOKING_CANCELLED));
+        Booking booking = mongoTemplate.findAndModify(query, update, Booking.class);
+        if (booking == null) {
+            return bookingRepository.existsById(bookingId);
+        }
+
+        flightService.releaseSeats(booking.getFlightId(), booking.getSeats());
+        boardingPassService.revoke(booking.getFlightId(), bookingId);
+        return true;
     }
 
-    private String generateBookingId() {
-        return "SA" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+    /**
+     * Moves every matching booking to the request's status in one bulk write, queueing a status email for
+     * each. Cancelled bookings are left alone, since their seats are gone; use {@link #bulkCancel} to cancel.
+     */
+    public BulkBookingResult bulkUpdateStatus(BulkBookingRequest request) {
+        Booking.BookingStatus status = request.getStatus();
+        if (status == null) {
+            throw new IllegalArgumentException("Target status is required");
+        }
+        if (status == Booking.BookingStatus.CANCELLED) {
+            throw new IllegalArgumentException("Use bulk cancel to cancel bookings");
+        }
+
+        List<Booking> matched = findForBulk(request, status);
+        if (matched.isEmpty()) {
+            return new BulkBookingResult(0, 0, 0);
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Booking booking : matched) {
+            // Conditional on the status we read, so a concurrent change is not overwritten
+            operations.updateOne(Query.query(Criteria.where("id").is(booking.getId()).and("status").is(booking.getStatus())),
+                new Update()
+                    .set("status", status)
+                    .set("updatedAt", now)
+                    .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.STATUS_CHANGED)));
+        }
+        int updated = operations.execute().getModifiedCount();
+        return new BulkBookingResult(matched.size(), updated, 0);
     }
 
-    private String generateQRCodeData(Booking booking) {
-        return String.format("BOOKING:%s|FLIGHT:%s|SEATS:%s|PASSENGER:%s", 
-            booking.getId(), 
-            booking.getFlightId(), 
-            String.join(",", booking.getSeats()),
-            booking.getPassengerDetails().get(0).getName()
-        );
+    /**
+     * Cancels every matching booking in one bulk write, then hands back their seats with one inventory
+     * update per flight. Only bookings this call moved to CANCELLED release seats.
+     */
+    public BulkBookingResult bulkCancel(BulkBookingRequest request) {
+        List<Booking> matched = findForBulk(request, Booking.BookingStatus.CANCELLED);
+        if (matched.isEmpty()) {
+            return new BulkBookingResult(0, 0, 0);
+        }
+        String cancellationId = bookingIdGenerator.nextId("CX");
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Booking booking : matched) {
+            operations.updateOne(Query.query(Criteria.where("id").is(booking.getId()).and("status").is(booking.getStatus())),
+                new Update()
+                    .set("status", Booking.BookingStatus.CANCELLED)
+                    .set("cancellationId", cancellationId)
+                    .set("updatedAt", now)
+                    .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.BOOKING_CANCELLED)));
+        }
+        int updated = operations.execute().getModifiedCount();
+
+        List<Booking> cancelled = matched;
+        if (updated < matched.size()) {
+            // Some bookings changed under us; keep only the ones this call cancelled
+            Query ours = Query.query(Criteria.where("cancellationId").is(cancellationId)
+                .and("id").in(matched.stream().map(Booking::getId).toList()));
+            ours.fields().include("id");
+            Set<String> ourIds = new HashSet<>();
+            for (Booking booking : mongoTemplate.find(ours, Booking.class)) {
+                ourIds.add(booking.getId());
+            }
+            cancelled = matched.stream().filter(booking -> ourIds.contains(booking.getId())).toList();
+        }
+
+        Map<String, List<String>> seatsByFlight = new LinkedHashMap<>();
+        for (Booking booking : cancelled) {
+            seatsByFlight.computeIfAbsent(booking.getFlightId(), id -> new ArrayList<>()).addAll(booking.getSeats());
+            boardingPassService.revoke(booking.getFlightId(), booking.getId());
+        }
+        int seatsReleased = 0;
+        for (Map.Entry<String, List<String>> flight : seatsByFlight.entrySet()) {
+            if (flightService.releaseSeats(flight.getKey(), flight.getValue())) {
+                seatsReleased += flight.getValue().size();
+            } else {
+                System.err.println("Could not release seats " + flight.getValue() + " on flight " + flight.getKey());
+            }
+        }
+        return new BulkBookingResult(matched.size(), cancelled.size(), seatsReleased);
+    }
+
+    // Bookings selected by the request that are neither cancelled nor already in the target status
+    private List<Booking> findForBulk(BulkBookingRequest request, Booking.BookingStatus target) {
+        boolean byFlight = request.getFlightId() != null && !request.getFlightId().isBlank();
+        boolean byIds = request.getBookingIds() != null && !request.getBookingIds().isEmpty();
+        if (!byFlight && !byIds) {
+            throw new IllegalArgumentException("Either flightId or bookingIds is required");
+        }
+
+        Set<Booking.BookingStatus> statuses = request.getCurrentStatus() != null
+            ? EnumSet.of(request.getCurrentStatus())
+            : EnumSet.allOf(Booking.BookingStatus.class);
+        statuses.remove(target);
+        statuses.remove(Booking.BookingStatus.CANCELLED);
+        if (statuses.isEmpty()) {
+            return List.of();
+        }
+
+        Criteria criteria = Criteria.where("status").in(statuses);
+        if (byFlight) {
+            criteria.and("flightId").is(request.getFlightId());
+        }
+        if (byIds) {
+            criteria.and("id").in(request.getBookingIds());
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("id", "flightId", "seats", "status");
+        return mongoTemplate.find(query, Booking.class);
+    }
+
+    private String generateBookingId() {
+        return bookingIdGenerator.nextId();
     }
 }
\ No newline at end of file
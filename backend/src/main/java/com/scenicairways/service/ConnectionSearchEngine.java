@@ -0,0 +1,235 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.Itinerary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Time-expanded flight graph for multi-leg itineraries. Each city keeps its departing legs ordered by
+ * departure time, so the onward options from an arrival are a single range lookup. Itineraries are
+ * found with a k-shortest-arrival search: a city is expanded onward at most k times per leg count, and
+ * the number of expanded labels is capped, which bounds the work regardless of network size. Only
+ * labels that can still reach the destination within the leg limit are queued.
+ */
+@Component
+public class ConnectionSearchEngine {
+
+    private static final Duration MAX_LAYOVER = Duration.ofHours(12);
+    private static final int MAX_EXPANSIONS = 50_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, NavigableMap<LocalDateTime, List<Leg>>> departures = new HashMap<>();
+    private final Map<String, Leg> legsByFlight = new HashMap<>();
+
+    private static class Leg {
+        private final FlightSummary flight;
+        private final String from;
+        private final String to;
+        private final LocalDateTime departure;
+        private final LocalDateTime arrival;
+
+        private Leg(FlightSummary flight, String from, String to, LocalDateTime departure, LocalDateTime arrival) {
+            this.flight = flight;
+            this.from = from;
+            this.to = to;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        // Summaries are shared with the route index, so seat counts here follow live inventory
+        private boolean isBookable() {
+            return flight.getAvailableSeats() > 0;
+        }
+    }
+
+    private static class Label {
+        private final Leg leg;
+        private final Label previous;
+        private final int legCount;
+        private final double totalPrice;
+
+        private Label(Leg leg, Label previous) {
+            this.leg = leg;
+            this.previous = previous;
+            this.legCount = previous != null ? previous.legCount + 1 : 1;
+            this.totalPrice = (previous != null ? previous.totalPrice : 0) + leg.flight.getPrice();
+        }
+
+        private boolean visits(String city) {
+            for (Label label = this; label != null; label = label.previous) {
+                if (label.leg.from.equals(city) || label.leg.to.equals(city)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Itinerary toItinerary() {
+            List<FlightSummary> legs = new ArrayList<>(legCount);
+            Label first = this;
+            for (Label label = this; label != null; label = label.previous) {
+                legs.add(label.leg.flight);
+                first = label;
+            }
+            Collections.reverse(legs);
+            LocalDateTime departure = first.leg.departure;
+            LocalDateTime arrival = leg.arrival;
+            return new Itinerary(legs, departure, arrival, totalPrice, Duration.between(departure, arrival).toMinutes());
+        }
+    }
+
+    public void rebuild(Collection<FlightSummary> flights) {
+        lock.writeLock().lock();
+        try {
+            departures.clear();
+            legsByFlight.clear();
+            for (FlightSummary flight : flights) {
+                add(flight);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(FlightSummary flight) {
+        lock.writeLock().lock();
+        try {
+            removeLeg(flight.getId());
+            add(flight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String flightId) {
+        lock.writeLock().lock();
+        try {
+            removeLeg(flightId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Itinerary> search(String departure, String arrival, LocalDate date, int maxLegs,
+                                  Duration minConnection, int limit) {
+        String origin = RouteSearchIndex.normalize(departure);
+        String destination = RouteSearchIndex.normalize(arrival);
+        List<Itinerary> results = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDateTime, List<Leg>> firstLegs = departures.get(origin);
+            if (firstLegs == null) {
+                return results;
+            }
+
+            PriorityQueue<Label> queue = new PriorityQueue<>(Comparator
+                .<Label, LocalDateTime>comparing(label -> label.leg.arrival)
+                .thenComparingDouble(label -> label.totalPrice));
+            for (List<Leg> legs : firstLegs.subMap(date.atStartOfDay(), true, date.plusDays(1).atStartOfDay(), false).values()) {
+                for (Leg leg : legs) {
+                    if (leg.isBookable() && canContinue(leg, 1, maxLegs, destination)) {
+                        queue.add(new Label(leg, null));
+                    }
+                }
+            }
+
+            // Onward expansions per (city, leg count); only labels that queued a successor use a slot, so a
+            // dead end (arriving too late or too early to connect) never crowds out a route that works
+            Map<String, Integer> settled = new HashMap<>();
+            int expansions = 0;
+            while (!queue.isEmpty() && results.size() < limit && expansions++ < MAX_EXPANSIONS) {
+                Label label = queue.poll();
+                String city = label.leg.to;
+                if (city.equals(destination)) {
+                    results.add(label.toItinerary());
+                    continue;
+                }
+                String settleKey = city + "#" + label.legCount;
+                if (settled.getOrDefault(settleKey, 0) >= limit) {
+                    continue;
+                }
+
+                NavigableMap<LocalDateTime, List<Leg>> onward = departures.get(city);
+                if (onward == null) {
+                    continue;
+                }
+                LocalDateTime earliest = label.leg.arrival.plus(minConnection);
+                LocalDateTime latest = label.leg.arrival.plus(MAX_LAYOVER);
+                boolean queued = false;
+                for (List<Leg> legs : onward.subMap(earliest, true, latest, true).values()) {
+                    for (Leg leg : legs) {
+                        if (leg.isBookable() && canContinue(leg, label.legCount + 1, maxLegs, destination)
+                                && !label.visits(leg.to)) {
+                            queue.add(new Label(leg, label));
+                            queued = true;
+                        }
+                    }
+                }
+                if (queued) {
+                    settled.merge(settleKey, 1, Integer::sum);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A leg that uses up the last allowed leg is only worth taking if it lands at the destination
+    private static boolean canContinue(Leg leg, int legCount, int maxLegs, String destination) {
+        return legCount < maxLegs || leg.to.equals(destination);
+    }
+
+    private void add(FlightSummary flight) {
+        if (flight.getId() == null || flight.getDate() == null
+                || flight.getDepartureTime() == null || flight.getArrivalTime() == null) {
+            return;
+        }
+        LocalDateTime departure = flight.getDate().atTime(flight.getDepartureTime());
+        LocalDateTime arrival = flight.getDate().atTime(flight.getArrivalTime());
+        if (arrival.isBefore(departure)) {
+            // Overnight flight
+            arrival = arrival.plusDays(1);
+        }
+
+        Leg leg = new Leg(flight, RouteSearchIndex.normalize(flight.getDeparture()),
+            RouteSearchIndex.normalize(flight.getArrival()), departure, arrival);
+        legsByFlight.put(flight.getId(), leg);
+        departures.computeIfAbsent(leg.from, key -> new TreeMap<>())
+            .computeIfAbsent(departure, key -> new ArrayList<>())
+            .add(leg);
+    }
+
+    private void removeLeg(String flightId) {
+        Leg leg = legsByFlight.remove(flightId);
+        if (leg == null) {
+            return;
+        }
+        NavigableMap<LocalDateTime, List<Leg>> cityDepartures = departures.get(leg.from);
+        List<Leg> legs = cityDepartures.get(leg.departure);
+        legs.remove(leg);
+        if (legs.isEmpty()) {
+            cityDepartures.remove(leg.departure);
+            if (cityDepartures.isEmpty()) {
+                departures.remove(leg.from);
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.scenicairways.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.scenicairways.model.Booking;
@@ -15,6 +16,10 @@ import com.scenicairways.model.Flight;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+/**
+ * Booking emails. Sends run on the caller's thread and throw when the message cannot be sent, so the
+ * booking outbox dispatcher can retry them.
+ */
 @Service
 public class EmailService {
 
@@ -27,7 +32,9 @@ public class EmailService {
     @Autowired
     private QRCodeService qrCodeService;
 
-    @Async
+    @Autowired
+    private BoardingPassService boardingPassService;
+
     public void sendBookingConfirmation(Booking booking) {
         try {
             Optional<Flight> flightOpt = flightService.getFlightById(booking.getFlightId());
@@ -44,9 +51,7 @@ public class EmailService {
                 helper.setText(htmlContent, true);
 
                 // Attach QR code
-                byte[] qrCodeBytes = qrCodeService.generateQRCodeBytes(
-                    String.format("BOOKING:%s|FLIGHT:%s", booking.getId(), flight.getFlightNumber())
-                );
+                byte[] qrCodeBytes = qrCodeService.generateQRCodeBytes(boardingPassService.encode(booking, flight));
                 if (qrCodeBytes != null) {
                     helper.addAttachment("boarding-pass-qr.png", new ByteArrayResource(qrCodeBytes));
                 }
@@ -56,10 +61,46 @@ public class EmailService {
             }
         } catch (MessagingException e) {
             System.err.println("Failed to send booking confirmation email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send booking confirmation email", e);
+        }
+    }
+
+    /** One confirmation for every leg of an itinerary, with each leg's boarding pass QR code attached. */
+    public void sendItineraryConfirmation(List<Booking> legs) {
+        try {
+            List<Flight> flights = new ArrayList<>();
+            for (Booking leg : legs) {
+                flights.add(flightService.getFlightById(leg.getFlightId())
+                    .orElseThrow(() -> new IllegalStateException("Flight not found for booking " + leg.getId())));
+            }
+            Booking first = legs.get(0);
+
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+
+            helper.setTo(first.getContactEmail());
+            helper.setSubject("Itinerary Confirmation - Scenic Airways " + first.getItineraryId());
+
+            String htmlContent = generateItineraryConfirmationEmail(legs, flights);
+            helper.setText(htmlContent, true);
+
+            // Attach one QR code per leg
+            for (int i = 0; i < legs.size(); i++) {
+                byte[] qrCodeBytes = qrCodeService.generateQRCodeBytes(boardingPassService.encode(legs.get(i), flights.get(i)));
+                if (qrCodeBytes != null) {
+                    helper.addAttachment("boarding-pass-" + (i + 1) + "-" + flights.get(i).getFlightNumber() + ".png",
+                        new ByteArrayResource(qrCodeBytes));
+                }
+            }
+
+            mailSender.send(message);
+            System.out.println("Itinerary confirmation email sent to: " + first.getContactEmail());
+        } catch (MessagingException e) {
+            System.err.println("Failed to send itinerary confirmation email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send itinerary confirmation email", e);
         }
     }
 
-    @Async
     public void sendBookingStatusUpdate(Booking booking) {
         try {
             Optional<Flight> flightOpt = flightService.getFlightById(booking.getFlightId());
@@ -80,10 +121,10 @@ public class EmailService {
             }
         } catch (MessagingException e) {
             System.err.println("Failed to send status update email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send status update email", e);
         }
     }
 
-    @Async
     public void sendBookingCancellation(Booking booking) {
         try {
             Optional<Flight> flightOpt = flightService.getFlightById(booking.getFlightId());
@@ -104,6 +145,55 @@ public class EmailService {
             }
         } catch (MessagingException e) {
             System.err.println("Failed to send cancellation email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send cancellation email", e);
+        }
+    }
+
+    /** Works from the flight snapshot in the event, since the flight has been deleted. */
+    public void sendFlightCancellation(Booking booking, Booking.FlightChange change) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false);
+
+            helper.setTo(booking.getContactEmail());
+            helper.setSubject("Flight Cancelled - " + change.getFlightNumber());
+
+            String htmlContent = generateFlightCancellationEmail(booking, change);
+            helper.setText(htmlContent, true);
+
+            mailSender.send(message);
+            System.out.println("Flight cancellation email sent to: " + booking.getContactEmail());
+        } catch (MessagingException e) {
+            System.err.println("Failed to send flight cancellation email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send flight cancellation email", e);
+        }
+    }
+
+    public void sendFlightReschedule(Booking booking, Booking.FlightChange change) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+
+            helper.setTo(booking.getContactEmail());
+            helper.setSubject("Schedule Change - " + change.getFlightNumber());
+
+            String htmlContent = generateFlightRescheduleEmail(booking, change);
+            helper.setText(htmlContent, true);
+
+            // The boarding pass is only valid around the new departure, so send a fresh one
+            Optional<Flight> flightOpt = flightService.getFlightById(booking.getFlightId());
+            if (flightOpt.isPresent()) {
+                byte[] qrCodeBytes = qrCodeService.generateQRCodeBytes(boardingPassService.encode(booking, flightOpt.get()));
+                if (qrCodeBytes != null) {
+                    helper.addAttachment("boarding-pass-qr.png", new ByteArrayResource(qrCodeBytes));
+                }
+            }
+
+            mailSender.send(message);
+            System.out.println("Schedule change email sent to: " + booking.getContactEmail());
+        } catch (MessagingException e) {
+            System.err.println("Failed to send schedule change email: " + e.getMessage());
+            throw new IllegalStateException("Failed to send schedule change email", e);
         }
     }
 
@@ -182,6 +272,79 @@ public class EmailService {
         );
     }
 
+    private String generateItineraryConfirmationEmail(List<Booking> legs, List<Flight> flights) {
+        StringBuilder legsHtml = new StringBuilder();
+        double totalPrice = 0;
+        for (int i = 0; i < legs.size(); i++) {
+            Booking leg = legs.get(i);
+            Flight flight = flights.get(i);
+            totalPrice += leg.getTotalPrice();
+            legsHtml.append(String.format("""
+                <div class="flight-details">
+                    <h3>Leg %d: %s</h3>
+                    <p><strong>Booking ID:</strong> <span class="highlight">%s</span></p>
+                    <p><strong>Route:</strong> %s → %s</p>
+                    <p><strong>Date:</strong> %s, %s – %s</p>
+                    <p><strong>Seats:</strong> %s</p>
+                </div>
+                """,
+                i + 1,
+                flight.getFlightNumber(),
+                leg.getId(),
+                flight.getDeparture(),
+                flight.getArrival(),
+                flight.getDate(),
+                flight.getDepartureTime(),
+                flight.getArrivalTime(),
+                String.join(", ", leg.getSeats())
+            ));
+        }
+
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    .flight-details { background: #f8f9fa; padding: 15px; border-radius: 8px; margin: 20px 0; }
+                    .footer { background: #333; color: white; padding: 20px; text-align: center; }
+                    .highlight { color: #667eea; font-weight: bold; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h1>✈️ Scenic Airways</h1>
+                    <h2>Itinerary Confirmation</h2>
+                </div>
+
+                <div class="content">
+                    <p>Dear %s,</p>
+
+                    <p>Thank you for choosing Scenic Airways! Every flight in itinerary <span class="highlight">%s</span> has been confirmed.</p>
+
+                    %s
+
+                    <p><strong>Total Amount:</strong> ₹%,.2f</p>
+
+                    <p>Please arrive at the airport at least 2 hours before each departure. A QR code boarding pass for every flight is attached to this email.</p>
+                </div>
+
+                <div class="footer">
+                    <p>Scenic Airways - Where Every Seat Has a View</p>
+                    <p>For support, contact us at support@scenicairways.com</p>
+                </div>
+            </body>
+            </html>
+            """,
+            legs.get(0).getPassengerDetails().get(0).getName(),
+            legs.get(0).getItineraryId(),
+            legsHtml,
+            totalPrice
+        );
+    }
+
     private String generateStatusUpdateEmail(Booking booking, Flight flight) {
         return String.format("""
             <!DOCTYPE html>
@@ -200,19 +363,19 @@ public class EmailService {
                     <h1>✈️ Scenic Airways</h1>
                     <h2>Booking Status Update</h2>
                 </div>
-                
+
                 <div class="content">
                     <p>Dear %s,</p>
-                    
+
                     <div class="status">
                         <h3>Your booking status has been updated to: <strong>%s</strong></h3>
                         <p>Booking ID: %s</p>
                         <p>Flight: %s (%s → %s)</p>
                     </div>
-                    
+
                     <p>If you have any questions, please contact our customer service team.</p>
                 </div>
-                
+
                 <div class="footer">
                     <p>Scenic Airways - Where Every Seat Has a View</p>
                 </div>
@@ -246,20 +409,20 @@ public class EmailService {
                     <h1>✈️ Scenic Airways</h1>
                     <h2>Booking Cancellation</h2>
                 </div>
-                
+
                 <div class="content">
                     <p>Dear %s,</p>
-                    
+
                     <div class="cancellation">
                         <h3>Your booking has been cancelled</h3>
                         <p>Booking ID: %s</p>
                         <p>Flight: %s (%s → %s)</p>
                         <p>Refund will be processed within 5-7 business days.</p>
                     </div>
-                    
+
                     <p>We're sorry to see you go. We hope to serve you again in the future!</p>
                 </div>
-                
+
                 <div class="footer">
                     <p>Scenic Airways - Where Every Seat Has a View</p>
                 </div>
@@ -274,6 +437,107 @@ public class EmailService {
         );
     }
 
+    private String generateFlightCancellationEmail(Booking booking, Booking.FlightChange change) {
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .header { background: #dc3545; color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    .cancellation { background: #f8d7da; padding: 15px; border-radius: 8px; margin: 20px 0; }
+                    .footer { background: #333; color: white; padding: 20px; text-align: center; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h1>✈️ Scenic Airways</h1>
+                    <h2>Flight Cancelled</h2>
+                </div>
+
+                <div class="content">
+                    <p>Dear %s,</p>
+
+                    <div class="cancellation">
+                        <h3>Your flight has been cancelled by the airline</h3>
+                        <p>Booking ID: %s</p>
+                        <p>Flight: %s (%s → %s)</p>
+                        <p>Scheduled: %s at %s</p>
+                        <p>A full refund will be processed within 5-7 business days.</p>
+                    </div>
+
+                    <p>We apologise for the disruption and hope to welcome you on board another flight soon.</p>
+                </div>
+
+                <div class="footer">
+                    <p>Scenic Airways - Where Every Seat Has a View</p>
+                </div>
+            </body>
+            </html>
+            """,
+            booking.getPassengerDetails().get(0).getName(),
+            booking.getId(),
+            change.getFlightNumber(),
+            change.getDeparture(),
+            change.getArrival(),
+            change.getPreviousDate(),
+            change.getPreviousDepartureTime()
+        );
+    }
+
+    private String generateFlightRescheduleEmail(Booking booking, Booking.FlightChange change) {
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 20px; text-align: center; }
+                    .content { padding: 20px; }
+                    .status { background: #fff3cd; padding: 15px; border-radius: 8px; margin: 20px 0; }
+                    .footer { background: #333; color: white; padding: 20px; text-align: center; }
+                </style>
+            </head>
+            <body>
+                <div class="header">
+                    <h1>✈️ Scenic Airways</h1>
+                    <h2>Schedule Change</h2>
+                </div>
+
+                <div class="content">
+                    <p>Dear %s,</p>
+
+                    <div class="status">
+                        <h3>The schedule of your flight has changed</h3>
+                        <p>Booking ID: %s</p>
+                        <p>Flight: %s (%s → %s)</p>
+                        <p><strong>Was:</strong> %s at %s</p>
+                        <p><strong>Now:</strong> %s, departing %s and arriving %s</p>
+                    </div>
+
+                    <p>Your seats are unchanged. An updated QR code boarding pass is attached to this email.</p>
+                </div>
+
+                <div class="footer">
+                    <p>Scenic Airways - Where Every Seat Has a View</p>
+                </div>
+            </body>
+            </html>
+            """,
+            booking.getPassengerDetails().get(0).getName(),
+            booking.getId(),
+            change.getFlightNumber(),
+            change.getDeparture(),
+            change.getArrival(),
+            change.getPreviousDate(),
+            change.getPreviousDepartureTime(),
+            change.getDate(),
+            change.getDepartureTime(),
+            change.getArrivalTime()
+        );
+    }
+
     private String generatePassengerListHtml(Booking booking) {
         StringBuilder html = new StringBuilder();
         for (Booking.PassengerDetail passenger : booking.getPassengerDetails()) {
@@ -0,0 +1,118 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FareCalendarDay;
+import com.scenicairways.dto.FlightSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Per-route, per-day fare aggregate kept up to date by flight and seat changes, so a month of
+ * fares is read straight from memory instead of queried from the flights collection.
+ */
+@Component
+public class FareCalendar {
+
+    // route -> date -> flightId -> fare
+    private final Map<String, NavigableMap<LocalDate, Map<String, Fare>>> routes = new HashMap<>();
+    private final Map<String, Fare> faresByFlight = new HashMap<>();
+
+    private static class Fare {
+        private final String route;
+        private final LocalDate date;
+        private final double price;
+        private int availableSeats;
+
+        private Fare(String route, LocalDate date, double price, int availableSeats) {
+            this.route = route;
+            this.date = date;
+            this.price = price;
+            this.availableSeats = availableSeats;
+        }
+    }
+
+    public synchronized void rebuild(Collection<FlightSummary> flights) {
+        routes.clear();
+        faresByFlight.clear();
+        for (FlightSummary flight : flights) {
+            add(flight);
+        }
+    }
+
+    public synchronized void put(FlightSummary flight) {
+        removeFare(flight.getId());
+        add(flight);
+    }
+
+    public synchronized void remove(String flightId) {
+        removeFare(flightId);
+    }
+
+    public synchronized void updateAvailableSeats(String flightId, int availableSeats) {
+        Fare fare = faresByFlight.get(flightId);
+        if (fare != null) {
+            fare.availableSeats = availableSeats;
+        }
+    }
+
+    public synchronized List<FareCalendarDay> getMonth(String departure, String arrival, YearMonth month) {
+        List<FareCalendarDay> days = new ArrayList<>();
+        NavigableMap<LocalDate, Map<String, Fare>> dates = routes.get(routeKey(departure, arrival));
+        if (dates == null) {
+            return days;
+        }
+
+        for (Map.Entry<LocalDate, Map<String, Fare>> entry : dates.subMap(month.atDay(1), true, month.atEndOfMonth(), true).entrySet()) {
+            Double minPrice = null;
+            int remainingSeats = 0;
+            for (Fare fare : entry.getValue().values()) {
+                remainingSeats += Math.max(fare.availableSeats, 0);
+                if (fare.availableSeats > 0 && (minPrice == null || fare.price < minPrice)) {
+                    minPrice = fare.price;
+                }
+            }
+            days.add(new FareCalendarDay(entry.getKey(), minPrice, remainingSeats, entry.getValue().size()));
+        }
+        return days;
+    }
+
+    private void add(FlightSummary flight) {
+        if (flight.getId() == null || flight.getDate() == null) {
+            return;
+        }
+        String route = routeKey(flight.getDeparture(), flight.getArrival());
+        Fare fare = new Fare(route, flight.getDate(), flight.getPrice(), flight.getAvailableSeats());
+        faresByFlight.put(flight.getId(), fare);
+        routes.computeIfAbsent(route, key -> new TreeMap<>())
+            .computeIfAbsent(flight.getDate(), key -> new HashMap<>())
+            .put(flight.getId(), fare);
+    }
+
+    private void removeFare(String flightId) {
+        Fare fare = faresByFlight.remove(flightId);
+        if (fare == null) {
+            return;
+        }
+        NavigableMap<LocalDate, Map<String, Fare>> dates = routes.get(fare.route);
+        Map<String, Fare> flights = dates.get(fare.date);
+        flights.remove(flightId);
+        if (flights.isEmpty()) {
+            dates.remove(fare.date);
+            if (dates.isEmpty()) {
+                routes.remove(fare.route);
+            }
+        }
+    }
+
+    private String routeKey(String departure, String arrival) {
+        return RouteSearchIndex.normalize(departure) + "|" + RouteSearchIndex.normalize(arrival);
+    }
+}
@@ -0,0 +1,110 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.model.Booking;
+import com.scenicairways.model.Flight;
+import com.scenicairways.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Carries a flight's cancellation or schedule change over to its bookings. Live bookings are read
+ * through a cursor and updated {@link #BATCH_SIZE} at a time in unordered bulk writes; each update
+ * queues the booking's notification in its outbox along with a snapshot of the flight, so the emails
+ * still go out after the flight itself is gone.
+ */
+@Service
+public class FlightCascadeService {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookingIdGenerator bookingIdGenerator;
+
+    @Autowired
+    private BoardingPassService boardingPassService;
+
+    /** Cancels every live booking on the flight. Seats are not released; the flight is going away. */
+    public int flightCancelled(Flight flight) {
+        Booking.FlightChange change = snapshot(FlightSummary.from(flight), null);
+        String cancellationId = bookingIdGenerator.nextId("CX");
+        return cascade(flight.getId(), booking -> {
+            boardingPassService.revoke(flight.getId(), booking.getId());
+            return new Update()
+                .set("status", Booking.BookingStatus.CANCELLED)
+                .set("cancellationId", cancellationId)
+                .set("updatedAt", LocalDateTime.now())
+                .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.FLIGHT_CANCELLED, change));
+        });
+    }
+
+    /** Tells every live booking on the flight about new times, if the times actually changed. */
+    public int flightRescheduled(FlightSummary before, Flight after) {
+        if (Objects.equals(before.getDate(), after.getDate())
+                && Objects.equals(before.getDepartureTime(), after.getDepartureTime())
+                && Objects.equals(before.getArrivalTime(), after.getArrivalTime())) {
+            return 0;
+        }
+        Booking.FlightChange change = snapshot(before, after);
+        return cascade(after.getId(), booking -> new Update()
+            .set("updatedAt", LocalDateTime.now())
+            .push("outbox", new Booking.OutboxEvent(Booking.OutboxEvent.EventType.FLIGHT_RESCHEDULED, change)));
+    }
+
+    private int cascade(String flightId, Function<Booking, Update> updateFor) {
+        int updated = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamByFlightIdAndStatusNot(flightId, Booking.BookingStatus.CANCELLED)) {
+            Iterator<Booking> cursor = bookings.iterator();
+            List<Booking> batch = new ArrayList<>(BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == BATCH_SIZE || !cursor.hasNext()) {
+                    BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+                    for (Booking booking : batch) {
+                        // Conditional on the status we read, so a booking cancelled meanwhile is left alone
+                        operations.updateOne(Query.query(Criteria.where("id").is(booking.getId())
+                            .and("status").is(booking.getStatus())), updateFor.apply(booking));
+                    }
+                    updated += operations.execute().getModifiedCount();
+                    batch.clear();
+                }
+            }
+        }
+        System.out.println("Cascaded flight " + flightId + " change to " + updated + " bookings");
+        return updated;
+    }
+
+    private Booking.FlightChange snapshot(FlightSummary before, Flight after) {
+        Booking.FlightChange change = new Booking.FlightChange();
+        change.setFlightNumber(after != null ? after.getFlightNumber() : before.getFlightNumber());
+        change.setDeparture(after != null ? after.getDeparture() : before.getDeparture());
+        change.setArrival(after != null ? after.getArrival() : before.getArrival());
+        change.setPreviousDate(before.getDate());
+        change.setPreviousDepartureTime(before.getDepartureTime());
+        if (after != null) {
+            change.setDate(after.getDate());
+            change.setDepartureTime(after.getDepartureTime());
+            change.setArrivalTime(after.getArrivalTime());
+        }
+        return change;
+    }
+}
@@ -0,0 +1,252 @@
+package com.scenicairways.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.scenicairways.dto.FlightImportResult;
+import com.scenicairways.model.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams flights from NDJSON or CSV into Mongo. Rows are parsed and validated one at a time and written
+ * in unordered bulk inserts; at most {@link #MAX_IN_FLIGHT} batches are pending at once, so memory stays
+ * flat however large the upload is. Bad rows are reported by line number and never stop the import.
+ */
+@Service
+public class FlightImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AIService aiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SunPositionEngine sunPositionEngine;
+
+    private final ExecutorService writers = Executors.newFixedThreadPool(MAX_IN_FLIGHT);
+
+    public FlightImportResult importFlights(InputStream input, Format format) throws IOException {
+        Progress progress = new Progress();
+        Semaphore window = new Semaphore(MAX_IN_FLIGHT);
+        List<Flight> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchRows = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(line);
+                    continue;
+                }
+
+                progress.received();
+                try {
+                    Map<String, Object> row = format == Format.CSV
+                        ? toRow(header, parseCsvLine(line))
+                        : objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {});
+                    batch.add(toFlight(row));
+                    batchRows.add(lineNumber);
+                } catch (IllegalArgumentException | IOException e) {
+                    progress.failed(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                if (batch.size() == BATCH_SIZE) {
+                    submit(batch, batchRows, window, progress);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchRows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, batchRows, window, progress);
+            }
+        } finally {
+            // Wait for the writes still in flight
+            window.acquireUninterruptibly(MAX_IN_FLIGHT);
+        }
+        return progress.toResult();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+
+    private void submit(List<Flight> batch, List<Integer> rows, Semaphore window, Progress progress) {
+        window.acquireUninterruptibly();
+        try {
+            writers.execute(() -> {
+                try {
+                    write(batch, rows, progress);
+                } finally {
+                    window.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            window.release();
+            throw e;
+        }
+    }
+
+    private void write(List<Flight> batch, List<Integer> rows, Progress progress) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Flight.class).insert(batch).execute();
+            progress.inserted(batch.size());
+        } catch (BulkOperationException e) {
+            progress.inserted(e.getResult().getInsertedCount());
+            for (BulkWriteError error : e.getErrors()) {
+                progress.failed(rows.get(error.getIndex()), error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Flight import batch failed: " + e.getMessage());
+            for (Integer row : rows) {
+                progress.failed(row, "Write failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private Flight toFlight(Map<String, Object> row) {
+        Flight flight = objectMapper.convertValue(row, Flight.class);
+        if (isBlank(flight.getFlightNumber()) || isBlank(flight.getDeparture()) || isBlank(flight.getArrival())) {
+            throw new IllegalArgumentException("flightNumber, departure and arrival are required");
+        }
+        if (flight.getDate() == null || flight.getDepartureTime() == null || flight.getArrivalTime() == null) {
+            throw new IllegalArgumentException("date, departureTime and arrivalTime are required");
+        }
+        if (flight.getPrice() < 0 || flight.getTotalSeats() <= 0) {
+            throw new IllegalArgumentException("price must not be negative and totalSeats must be positive");
+        }
+        if (!row.containsKey("availableSeats")) {
+            flight.setAvailableSeats(flight.getTotalSeats());
+        }
+        if (flight.getAvailableSeats() < 0 || flight.getAvailableSeats() > flight.getTotalSeats()) {
+            throw new IllegalArgumentException("availableSeats must be between 0 and totalSeats");
+        }
+
+        flight.setId(null);
+        seatMapService.attachTemplate(flight);
+        RouteGeometry.compact(flight);
+        sunPositionEngine.apply(flight);
+        if (flight.getScenicSide() == null || flight.getSunPosition() == null) {
+            throw new IllegalArgumentException("scenicSide and sunPosition are required when the route cannot provide them");
+        }
+        flight.setCreatedAt(LocalDateTime.now());
+        flight.setUpdatedAt(LocalDateTime.now());
+        flight.setAiGeneratedDescription(aiService.generateScenicDescription(flight));
+        return flight;
+    }
+
+    private Map<String, Object> toRow(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Row has " + values.size() + " columns, header has " + header.size());
+        }
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                row.put(header.get(i), values.get(i));
+            }
+        }
+        return row;
+    }
+
+    // RFC 4180 fields on a single line: commas inside double quotes, "" for a literal quote
+    private List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static class Progress {
+        private int received;
+        private int inserted;
+        private int failed;
+        private final List<FlightImportResult.RowError> errors = new ArrayList<>();
+
+        synchronized void received() {
+            received++;
+        }
+
+        synchronized void inserted(int count) {
+            inserted += count;
+        }
+
+        synchronized void failed(int row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new FlightImportResult.RowError(row, message));
+            }
+        }
+
+        synchronized FlightImportResult toResult() {
+            errors.sort((left, right) -> Integer.compare(left.getRow(), right.getRow()));
+            return new FlightImportResult(received, inserted, failed, new ArrayList<>(errors));
+        }
+    }
+}
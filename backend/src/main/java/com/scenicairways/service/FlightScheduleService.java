@@ -0,0 +1,291 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+import com.scenicairways.model.FlightSchedule;
+import com.scenicairways.repository.FlightRepository;
+import com.scenicairways.repository.FlightScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Recurring schedules and lazy materialization of their dated flights. An occurrence becomes a
+ * {@link Flight} document only when a search first touches its date inside the horizon; the unique
+ * (scheduleId, date) index makes concurrent materialization of the same occurrence safe. Deleting a
+ * materialized flight records its date on the schedule, so no node brings the occurrence back.
+ * Only a dated route search writes on the request thread; wider ranges are queued for one background
+ * writer and show up in results once written.
+ */
+@Service
+public class FlightScheduleService {
+
+    @Autowired
+    private FlightScheduleRepository scheduleRepository;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AIService aiService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SunPositionEngine sunPositionEngine;
+
+    @Value("${app.schedule.horizon-days:90}")
+    private int horizonDays;
+
+    @Value("${app.schedule.undated-days:7}")
+    private int undatedDays;
+
+    @Value("${app.schedule.max-queued:1000}")
+    private int maxQueued;
+
+    private ThreadPoolExecutor materializer;
+    // Occurrences waiting for the background writer, so repeat searches do not queue them twice
+    private final Set<Occurrence> queued = ConcurrentHashMap.newKeySet();
+
+    private volatile List<FlightSchedule> schedules = List.of();
+    // Occurrences known to exist in Mongo, so repeat searches skip the insert attempt
+    private final Set<Occurrence> materialized = ConcurrentHashMap.newKeySet();
+
+    private record Occurrence(String scheduleId, LocalDate date) {
+    }
+
+    private record Pending(FlightSchedule schedule, LocalDate date) {
+        Occurrence occurrence() {
+            return new Occurrence(schedule.getId(), date);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        materializer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued));
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        materializer.shutdownNow();
+    }
+
+    public void reload() {
+        schedules = List.copyOf(scheduleRepository.findAll());
+        LocalDate today = LocalDate.now();
+        materialized.removeIf(occurrence -> occurrence.date().isBefore(today));
+    }
+
+    public List<FlightSchedule> getSchedules() {
+        return schedules;
+    }
+
+    public FlightSchedule createSchedule(FlightSchedule schedule) {
+        validate(schedule);
+        schedule.setId(null);
+        schedule.setUpdatedAt(LocalDateTime.now());
+        FlightSchedule saved = scheduleRepository.save(schedule);
+        reload();
+        return saved;
+    }
+
+    // Flights already materialized from the schedule stay; they may carry bookings
+    public boolean deleteSchedule(String id) {
+        if (!scheduleRepository.existsById(id)) {
+            return false;
+        }
+        scheduleRepository.deleteById(id);
+        reload();
+        return true;
+    }
+
+    /**
+     * Records that the occurrence behind a deleted flight must not be materialized again. Call before
+     * deleting the flight, so a node materializing it concurrently either sees the record or has its
+     * insert removed by the delete.
+     */
+    public void occurrenceDeleted(Flight flight) {
+        if (flight.getScheduleId() == null || flight.getDate() == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(flight.getScheduleId())),
+            new Update().addToSet("cancelledDates", flight.getDate()), FlightSchedule.class);
+        materialized.add(new Occurrence(flight.getScheduleId(), flight.getDate()));
+        reload();
+    }
+
+    /**
+     * Materializes on the calling thread the occurrences on one date of schedules whose route contains
+     * the given text (null matches any, blank matches none). Returns the flights this call inserted or
+     * first found, for the caller to index.
+     */
+    public List<Flight> materialize(String departure, String arrival, LocalDate date) {
+        List<Flight> flights = new ArrayList<>();
+        for (Pending pending : pending(departure, arrival, date, date)) {
+            Flight flight = materialize(pending.schedule(), pending.date());
+            if (flight != null) {
+                flights.add(flight);
+            }
+            materialized.add(pending.occurrence());
+        }
+        return flights;
+    }
+
+    /**
+     * Queues the occurrences between the two dates for the background writer, which hands each flight
+     * it inserts or first finds to {@code onMaterialized}. Without an end date only {@code undatedDays}
+     * are covered. When the queue is full the rest are dropped, to be queued again by a later search.
+     */
+    public void materializeLater(String departure, String arrival, LocalDate fromDate, LocalDate toDate,
+                                 Consumer<Flight> onMaterialized) {
+        for (Pending pending : pending(departure, arrival, fromDate, toDate)) {
+            Occurrence occurrence = pending.occurrence();
+            if (!queued.add(occurrence)) {
+                continue;
+            }
+            try {
+                materializer.execute(() -> {
+                    try {
+                        if (!materialized.contains(occurrence)) {
+                            Flight flight = materialize(pending.schedule(), pending.date());
+                            if (flight != null) {
+                                onMaterialized.accept(flight);
+                            }
+                            materialized.add(occurrence);
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("Failed to materialize schedule " + occurrence.scheduleId() + " on " + occurrence.date() + ": " + e.getMessage());
+                    } finally {
+                        queued.remove(occurrence);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.remove(occurrence);
+                return;
+            }
+        }
+    }
+
+    private List<Pending> pending(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+        List<Pending> pending = new ArrayList<>();
+        if ((departure != null && departure.isBlank()) || (arrival != null && arrival.isBlank())) {
+            return pending;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate start = fromDate == null || fromDate.isBefore(today) ? today : fromDate;
+        LocalDate horizon = today.plusDays(horizonDays);
+        LocalDate end = toDate != null ? toDate : start.plusDays(undatedDays - 1);
+        if (end.isAfter(horizon)) {
+            end = horizon;
+        }
+        if (start.isAfter(end)) {
+            return pending;
+        }
+
+        String departureQuery = departure != null ? RouteSearchIndex.normalize(departure) : null;
+        String arrivalQuery = arrival != null ? RouteSearchIndex.normalize(arrival) : null;
+        for (FlightSchedule schedule : schedules) {
+            if ((departureQuery != null && !RouteSearchIndex.normalize(schedule.getDeparture()).contains(departureQuery))
+                    || (arrivalQuery != null && !RouteSearchIndex.normalize(schedule.getArrival()).contains(arrivalQuery))) {
+                continue;
+            }
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                if (schedule.operatesOn(date) && !materialized.contains(new Occurrence(schedule.getId(), date))) {
+                    pending.add(new Pending(schedule, date));
+                }
+            }
+        }
+        return pending;
+    }
+
+    private Flight materialize(FlightSchedule schedule, LocalDate date) {
+        Flight flight = new Flight();
+        flight.setScheduleId(schedule.getId());
+        flight.setFlightNumber(schedule.getFlightNumber());
+        flight.setDeparture(schedule.getDeparture());
+        flight.setArrival(schedule.getArrival());
+        flight.setDepartureTime(schedule.getDepartureTime());
+        flight.setArrivalTime(schedule.getArrivalTime());
+        flight.setDate(date);
+        flight.setAircraft(schedule.getAircraft());
+        flight.setScenicSide(schedule.getScenicSide());
+        flight.setScenicDescription(schedule.getScenicDescription());
+        flight.setPrice(schedule.getPrice());
+        flight.setTotalSeats(schedule.getTotalSeats());
+        flight.setAvailableSeats(schedule.getTotalSeats());
+        flight.setSeatLayout(schedule.getSeatLayout() != null ? schedule.getSeatLayout() : new ArrayList<>());
+        flight.setRoute(schedule.getRoute() != null ? schedule.getRoute() : new ArrayList<>());
+        flight.setSunPosition(schedule.getSunPosition());
+        seatMapService.attachTemplate(flight);
+        RouteGeometry.compact(flight);
+        sunPositionEngine.apply(flight);
+        flight.setAiGeneratedDescription(aiService.generateScenicDescription(flight));
+
+        // The schedule snapshot may predate a delete made on another node
+        if (isCancelled(schedule.getId(), date)) {
+            return null;
+        }
+        Flight inserted;
+        try {
+            inserted = flightRepository.insert(flight);
+        } catch (DuplicateKeyException e) {
+            // Another request or node materialized it first
+            return flightRepository.findByScheduleIdAndDate(schedule.getId(), date).orElse(null);
+        }
+        if (isCancelled(schedule.getId(), date)) {
+            // Deleted between the check and the insert
+            flightRepository.deleteById(inserted.getId());
+            return null;
+        }
+        return inserted;
+    }
+
+    private boolean isCancelled(String scheduleId, LocalDate date) {
+        return mongoTemplate.exists(Query.query(Criteria.where("id").is(scheduleId).and("cancelledDates").is(date)),
+            FlightSchedule.class);
+    }
+
+    private void validate(FlightSchedule schedule) {
+        if (schedule.getFlightNumber() == null || schedule.getDeparture() == null || schedule.getArrival() == null) {
+            throw new IllegalArgumentException("flightNumber, departure and arrival are required");
+        }
+        if (schedule.getDepartureTime() == null || schedule.getArrivalTime() == null) {
+            throw new IllegalArgumentException("departureTime and arrivalTime are required");
+        }
+        if (schedule.getDaysOfWeek() == null || schedule.getDaysOfWeek().isEmpty()) {
+            throw new IllegalArgumentException("daysOfWeek must not be empty");
+        }
+        if (schedule.getValidFrom() == null || schedule.getValidTo() == null || schedule.getValidTo().isBefore(schedule.getValidFrom())) {
+            throw new IllegalArgumentException("validFrom and validTo must form a date range");
+        }
+        if (schedule.getScenicSide() == null || schedule.getSunPosition() == null) {
+            throw new IllegalArgumentException("scenicSide and sunPosition are required");
+        }
+        if (schedule.getPrice() < 0 || schedule.getTotalSeats() <= 0) {
+            throw new IllegalArgumentException("price must not be negative and totalSeats must be positive");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.PageResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Result cache in front of flight search and the available-flights listing. Entries are dropped only
+ * when a changed flight could appear in, or disappear from, that cached result. Results are tagged with
+ * the ids of their flights, so a seat change touches only the results holding that flight, and results
+ * are stored and handed out as copies so later changes to the route index never leak into them.
+ */
+@Component
+public class FlightSearchCache {
+
+    @Value("${app.search-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.search-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private ResultCache<SearchKey, List<FlightSummary>> searches;
+    private ResultCache<PageKey, AvailablePage> availablePages;
+
+    public record SearchKey(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+        public static SearchKey of(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+            return new SearchKey(RouteSearchIndex.normalize(departure), RouteSearchIndex.normalize(arrival), fromDate, toDate);
+        }
+
+        boolean matches(FlightSummary flight) {
+            LocalDate date = flight.getDate();
+            return RouteSearchIndex.normalize(flight.getDeparture()).contains(departure)
+                && RouteSearchIndex.normalize(flight.getArrival()).contains(arrival)
+                && (fromDate == null || (date != null && !date.isBefore(fromDate)))
+                && (toDate == null || (date != null && !date.isAfter(toDate)));
+        }
+    }
+
+    public record PageKey(LocalDate today, String after, int size) {
+    }
+
+    // A cached page covers the (date, id) keys after its cursor up to its last item, or to the end on the last page
+    private record AvailablePage(PageResponse<FlightSummary> page, String[] lowerBound, String[] upperBound) {
+        boolean covers(FlightSummary flight) {
+            String[] key = { String.valueOf(flight.getDate()), flight.getId() };
+            return (lowerBound == null || compare(key, lowerBound) > 0)
+                && (upperBound == null || compare(key, upperBound) <= 0);
+        }
+
+        private static int compare(String[] left, String[] right) {
+            int byDate = left[0].compareTo(right[0]);
+            return byDate != 0 ? byDate : left[1].compareTo(right[1]);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        searches = new ResultCache<>(maxEntries, ttlSeconds * 1000);
+        availablePages = new ResultCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public List<FlightSummary> search(SearchKey key, Supplier<List<FlightSummary>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        List<FlightSummary> cached = searches.get(key);
+        if (cached != null) {
+            return copy(cached);
+        }
+        long loadedAt = searches.sequence();
+        List<FlightSummary> result = copy(loader.get());
+        searches.put(key, result, ids(result), loadedAt);
+        return copy(result);
+    }
+
+    public PageResponse<FlightSummary> availableFlights(PageKey key, Supplier<PageResponse<FlightSummary>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        AvailablePage cached = availablePages.get(key);
+        if (cached != null) {
+            return copy(cached.page());
+        }
+        long loadedAt = availablePages.sequence();
+        PageResponse<FlightSummary> page = copy(loader.get());
+        String[] lowerBound = key.after() != null ? KeysetCursor.decode(key.after(), 2) : null;
+        String[] upperBound = page.getNextCursor() != null ? KeysetCursor.decode(page.getNextCursor(), 2) : null;
+        availablePages.put(key, new AvailablePage(page, lowerBound, upperBound), ids(page.getItems()), loadedAt);
+        return copy(page);
+    }
+
+    /**
+     * Drops every cached result the flight could affect. Pass the flight as it was before the change and
+     * as it is after it; either may be null for creates and deletes.
+     */
+    public void flightChanged(FlightSummary before, FlightSummary after) {
+        searches.invalidateIf((key, result) -> (before != null && key.matches(before)) || (after != null && key.matches(after)));
+        availablePages.invalidateIf((key, page) -> (before != null && page.covers(before)) || (after != null && page.covers(after)));
+    }
+
+    /**
+     * Drops the results holding the flight after its available seats moved by {@code delta}. Search
+     * ignores availability, but the available listing only shows flights with seats left, so a flight
+     * selling out or reopening also affects the pages whose range it falls in.
+     */
+    public void seatsChanged(String flightId, FlightSummary flight, int delta) {
+        searches.invalidateTag(flightId);
+        availablePages.invalidateTag(flightId);
+        if (flight == null) {
+            availablePages.invalidateIf((key, page) -> true);
+        } else if ((flight.getAvailableSeats() > 0) != (flight.getAvailableSeats() - delta > 0)) {
+            availablePages.invalidateIf((key, page) -> page.covers(flight));
+        }
+    }
+
+    public void invalidateAll() {
+        searches.invalidateIf((key, result) -> true);
+        availablePages.invalidateIf((key, page) -> true);
+    }
+
+    private static List<FlightSummary> copy(List<FlightSummary> flights) {
+        List<FlightSummary> copies = new ArrayList<>(flights.size());
+        for (FlightSummary flight : flights) {
+            copies.add(flight.copy());
+        }
+        return copies;
+    }
+
+    private static PageResponse<FlightSummary> copy(PageResponse<FlightSummary> page) {
+        return new PageResponse<>(copy(page.getItems()), page.getNextCursor());
+    }
+
+    private static List<String> ids(List<FlightSummary> flights) {
+        List<String> ids = new ArrayList<>(flights.size());
+        for (FlightSummary flight : flights) {
+            ids.add(flight.getId());
+        }
+        return ids;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("search", searches.stats());
+        stats.put("available", availablePages.stats());
+        return stats;
+    }
+}
@@ -1,33 +1,117 @@
 package com.scenicairways.service;
 
+import com.scenicairways.dto.FareCalendarDay;
+import com.scenicairways.dto.FlightImportResult;
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.Itinerary;
+import com.scenicairways.dto.PageResponse;
+import com.scenicairways.dto.RouteResponse;
+import com.scenicairways.dto.SeatMapOverlay;
+import com.scenicairways.dto.SunAnalysis;
 import com.scenicairways.model.Flight;
+import com.scenicairways.model.FlightSchedule;
+import com.scenicairways.model.SeatHold;
+import com.scenicairways.model.SeatMapTemplate;
 import com.scenicairways.repository.FlightRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.annotation.PostConstruct;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Arrays;
 
 @Service
 public class FlightService {
 
+    private static final int MAX_CONNECTION_LEGS = 4;
+    private static final int MAX_CONNECTION_RESULTS = 20;
+    private static final int MAX_GROUP_HOLD_ATTEMPTS = 3;
+
     @Autowired
     private FlightRepository flightRepository;
 
     @Autowired
     private AIService aiService;
 
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private RouteSearchIndex routeSearchIndex;
+
+    @Autowired
+    private FlightSearchCache flightSearchCache;
+
+    @Autowired
+    private SeatStreamService seatStreamService;
+
+    @Autowired
+    private FareCalendar fareCalendar;
+
+    @Autowired
+    private ConnectionSearchEngine connectionSearchEngine;
+
+    @Autowired
+    private FlightImportService flightImportService;
+
+    @Autowired
+    private FlightScheduleService flightScheduleService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SunPositionEngine sunPositionEngine;
+
+    @Autowired
+    private FlightCascadeService flightCascadeService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @PostConstruct
     public void initializeFlights() {
         // Create sample flights if none exist
         if (flightRepository.count() == 0) {
             createSampleFlights();
         }
+        refreshSearchIndex();
+    }
+
+    // Picks up flights written by other nodes; local writes update the index directly
+    @Scheduled(fixedDelayString = "${app.route-index.refresh-ms:300000}", initialDelayString = "${app.route-index.refresh-ms:300000}")
+    public void refreshSearchIndex() {
+        flightScheduleService.reload();
+        seatMapService.reload();
+        List<FlightSummary> flights = flightRepository.findSummariesBy();
+        routeSearchIndex.rebuild(flights);
+        fareCalendar.rebuild(flights);
+        connectionSearchEngine.rebuild(flights);
+        flightSearchCache.invalidateAll();
+        System.out.println("Route search index loaded with " + flights.size() + " flights");
     }
 
     private void createSampleFlights() {
@@ -92,19 +176,133 @@ public class FlightService {
         // This is a simplified version - in real implementation, this would use actual coordinates
         return Arrays.asList();
     }
-    public List<Flight> getAllFlights() {
-        return flightRepository.findAll();
+    public PageResponse<FlightSummary> getAllFlights(String after, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("id"));
+        List<FlightSummary> flights = after == null
+            ? flightRepository.findAllBy(pageable)
+            : flightRepository.findByIdGreaterThan(KeysetCursor.decode(after, 1)[0], pageable);
+        return KeysetCursor.toPage(flights, pageSize, last -> KeysetCursor.encode(last.getId()));
     }
 
-    public List<Flight> getAvailableFlights() {
-        return flightRepository.findAvailableFlights(LocalDate.now());
+    public PageResponse<FlightSummary> getAvailableFlights(String after, int size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        FlightSearchCache.PageKey key = new FlightSearchCache.PageKey(LocalDate.now(), after, pageSize);
+        return flightSearchCache.availableFlights(key, () -> loadAvailableFlights(after, pageSize));
+    }
+
+    private PageResponse<FlightSummary> loadAvailableFlights(String after, int pageSize) {
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by("date", "id"));
+        List<FlightSummary> flights;
+        if (after == null) {
+            flights = flightRepository.findAvailableFlights(LocalDate.now(), pageable);
+        } else {
+            String[] keys = KeysetCursor.decode(after, 2);
+            flights = flightRepository.findAvailableFlightsAfter(LocalDate.now(), parseDate(keys[0]), keys[1], pageable);
+        }
+        return KeysetCursor.toPage(flights, pageSize, last -> KeysetCursor.encode(last.getDate().toString(), last.getId()));
     }
 
     public Optional<Flight> getFlightById(String id) {
         return flightRepository.findById(id);
     }
 
-    public List<Flight> searchFlights(String departure, String arrival, LocalDate date) {
+    public List<Flight.SeatRow> getSeatLayout(String id) {
+        Flight flight = flightRepository.findSeatLayoutById(id);
+        if (flight == null) {
+            return null;
+        }
+        if (flight.getSeatMapTemplateId() != null) {
+            SeatMapTemplate template = seatMapService.getTemplate(flight.getSeatMapTemplateId());
+            if (template != null) {
+                return seatMapService.resolveLayout(template, flight.getTakenSeats(), flight.getSeatPriceOverrides());
+            }
+        }
+        return flight.getSeatLayout() != null ? flight.getSeatLayout() : List.of();
+    }
+
+    public RouteResponse getRoute(String id, int zoom) {
+        Flight flight = flightRepository.findRouteById(id);
+        if (flight == null) {
+            return null;
+        }
+        String level = RouteGeometry.levelForZoom(zoom);
+        String polyline = flight.getRoutePolylines() != null ? flight.getRoutePolylines().get(level) : null;
+        List<Flight.RoutePoint> markers = flight.getRoute() != null ? flight.getRoute() : List.of();
+        if (polyline == null) {
+            // Flights written before geometry was precomputed
+            polyline = markers.size() >= 2 ? RouteGeometry.encodeLevels(markers).get(level) : "";
+        }
+        return new RouteResponse(level, polyline, markers);
+    }
+
+    public SunAnalysis getSunAnalysis(String id) {
+        return flightRepository.findById(id).map(sunPositionEngine::analyze).orElse(null);
+    }
+
+    public Map<String, Integer> recomputeSunPositions(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("toDate must not be before fromDate");
+        }
+        Map<String, Integer> result = sunPositionEngine.recompute(fromDate, toDate);
+        if (result.get("updated") > 0) {
+            refreshSearchIndex();
+        }
+        return result;
+    }
+
+    public SeatMapOverlay getSeatMapOverlay(String id) {
+        Flight flight = flightRepository.findSeatLayoutById(id);
+        if (flight == null || flight.getSeatMapTemplateId() == null) {
+            return null;
+        }
+        return new SeatMapOverlay(flight.getSeatMapTemplateId(),
+            flight.getTakenSeats() != null ? flight.getTakenSeats() : List.of(),
+            flight.getSeatPriceOverrides() != null ? flight.getSeatPriceOverrides() : Map.of(),
+            flight.getAvailableSeats());
+    }
+
+    public SeatMapTemplate getSeatMapTemplate(String templateId) {
+        return seatMapService.getTemplate(templateId);
+    }
+
+    public List<SeatMapTemplate> getSeatMapTemplates() {
+        return seatMapService.getTemplates();
+    }
+
+    public SeatMapTemplate createSeatMapTemplate(SeatMapTemplate template) {
+        return seatMapService.createTemplate(template);
+    }
+
+    public boolean updateSeatPrices(String flightId, Map<String, Double> prices) {
+        return seatMapService.updateSeatPrices(flightId, prices);
+    }
+
+    public List<FlightSummary> searchFlights(String departure, String arrival, LocalDate date) {
+        return searchFlights(departure, arrival, date, date);
+    }
+
+    public List<FlightSummary> searchFlights(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+        requireRoute(departure, arrival);
+        if (fromDate != null && fromDate.equals(toDate)) {
+            for (Flight flight : flightScheduleService.materialize(departure, arrival, fromDate)) {
+                indexNewFlight(flight);
+            }
+        } else {
+            // Ranges and undated searches cover many occurrences; they are written in the background
+            flightScheduleService.materializeLater(departure, arrival, fromDate, toDate, this::indexNewFlight);
+        }
+        FlightSearchCache.SearchKey key = FlightSearchCache.SearchKey.of(departure, arrival, fromDate, toDate);
+        return flightSearchCache.search(key, () -> lookupFlights(departure, arrival, fromDate, toDate));
+    }
+
+    private List<FlightSummary> lookupFlights(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+        if (routeSearchIndex.isWarm()) {
+            return routeSearchIndex.search(departure, arrival, fromDate, toDate);
+        }
+
+        // Cold index: fall back to Mongo
+        LocalDate date = fromDate != null && fromDate.equals(toDate) ? fromDate : null;
         if (date != null) {
             return flightRepository.findByDepartureAndArrivalAndDate(departure, arrival, date);
         } else {
@@ -114,18 +312,54 @@ public class FlightService {
 
     public Flight createFlight(Flight flight) {
         flight.setUpdatedAt(LocalDateTime.now());
+        seatMapService.attachTemplate(flight);
+        RouteGeometry.compact(flight);
+        sunPositionEngine.apply(flight);
         
         // Generate AI description for scenic views
         String aiDescription = aiService.generateScenicDescription(flight);
         flight.setAiGeneratedDescription(aiDescription);
         
-        return flightRepository.save(flight);
+        Flight savedFlight = flightRepository.save(flight);
+        indexNewFlight(savedFlight);
+        return savedFlight;
+    }
+
+    private void indexNewFlight(Flight flight) {
+        FlightSummary summary = FlightSummary.from(flight);
+        routeSearchIndex.put(summary);
+        fareCalendar.put(summary);
+        connectionSearchEngine.put(summary);
+        flightSearchCache.flightChanged(null, summary);
+    }
+
+    private void requireRoute(String departure, String arrival) {
+        if (departure == null || departure.isBlank() || arrival == null || arrival.isBlank()) {
+            throw new IllegalArgumentException("departure and arrival are required");
+        }
+    }
+
+    public FlightSchedule createSchedule(FlightSchedule schedule) {
+        return flightScheduleService.createSchedule(schedule);
     }
 
+    public List<FlightSchedule> getSchedules() {
+        return flightScheduleService.getSchedules();
+    }
+
+    public boolean deleteSchedule(String id) {
+        return flightScheduleService.deleteSchedule(id);
+    }
+
+    /**
+     * Applies an admin edit. Only the admin-owned fields are written, never the seat state, so a claim
+     * or release that lands between our read and our write is not undone by the edit.
+     */
     public Flight updateFlight(String id, Flight flightDetails) {
         Optional<Flight> optionalFlight = flightRepository.findById(id);
         if (optionalFlight.isPresent()) {
             Flight flight = optionalFlight.get();
+            FlightSummary before = FlightSummary.from(flight);
             flight.setFlightNumber(flightDetails.getFlightNumber());
             flight.setDeparture(flightDetails.getDeparture());
             flight.setArrival(flightDetails.getArrival());
@@ -136,55 +370,209 @@ public class FlightService {
             flight.setScenicSide(flightDetails.getScenicSide());
             flight.setScenicDescription(flightDetails.getScenicDescription());
             flight.setPrice(flightDetails.getPrice());
-            flight.setTotalSeats(flightDetails.getTotalSeats());
-            flight.setAvailableSeats(flightDetails.getAvailableSeats());
-            flight.setSeatLayout(flightDetails.getSeatLayout());
             flight.setRoute(flightDetails.getRoute());
             flight.setSunPosition(flightDetails.getSunPosition());
+            RouteGeometry.compact(flight);
+            // As on create, the computed analysis wins and the admin's values stand only without one
+            sunPositionEngine.apply(flight);
             flight.setUpdatedAt(LocalDateTime.now());
 
             // Regenerate AI description if scenic details changed
             String aiDescription = aiService.generateScenicDescription(flight);
             flight.setAiGeneratedDescription(aiDescription);
 
-            return flightRepository.save(flight);
+            Update update = new Update()
+                .set("flightNumber", flight.getFlightNumber())
+                .set("departure", flight.getDeparture())
+                .set("arrival", flight.getArrival())
+                .set("departureTime", flight.getDepartureTime())
+                .set("arrivalTime", flight.getArrivalTime())
+                .set("date", flight.getDate())
+                .set("aircraft", flight.getAircraft())
+                .set("scenicSide", flight.getScenicSide())
+                .set("scenicDescription", flight.getScenicDescription())
+                .set("price", flight.getPrice())
+                .set("route", flight.getRoute())
+                .set("routePolylines", flight.getRoutePolylines())
+                .set("sunPosition", flight.getSunPosition())
+                .set("aiGeneratedDescription", flight.getAiGeneratedDescription())
+                .set("updatedAt", flight.getUpdatedAt());
+            if (mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(id)), update, Flight.class).getMatchedCount() == 0) {
+                return null;
+            }
+            // Seat counts of templated flights follow the template and its overlay
+            if (flight.getSeatMapTemplateId() == null && flightDetails.getTotalSeats() != flight.getTotalSeats()) {
+                resizeUnsoldFlight(id, flightDetails);
+            }
+
+            // Re-read so the indexes see the live seat state rather than what we loaded
+            Flight savedFlight = flightRepository.findById(id).orElse(flight);
+            seatInventoryService.evict(id);
+            FlightSummary after = FlightSummary.from(savedFlight);
+            routeSearchIndex.put(after);
+            fareCalendar.put(after);
+            connectionSearchEngine.put(after);
+            flightSearchCache.flightChanged(before, after);
+            flightCascadeService.flightRescheduled(before, savedFlight);
+            return savedFlight;
         }
         return null;
     }
 
+    /**
+     * Replaces the capacity and layout of a flight without a seat map template. Only matches while no
+     * seat is sold, so a resize can never wipe out or miscount a booking; otherwise the edit is refused.
+     */
+    private void resizeUnsoldFlight(String id, Flight flightDetails) {
+        List<Flight.SeatRow> layout = flightDetails.getSeatLayout();
+        int available = layout == null || layout.isEmpty()
+            ? flightDetails.getTotalSeats()
+            : (int) layout.stream()
+                .filter(row -> row.getSeats() != null)
+                .flatMap(row -> row.getSeats().stream())
+                .filter(Flight.Seat::isAvailable)
+                .count();
+        Criteria criteria = Criteria.where("id").is(id).andOperator(Criteria.expr(
+            ComparisonOperators.valueOf("availableSeats").equalTo("totalSeats")));
+        Update update = new Update()
+            .set("totalSeats", flightDetails.getTotalSeats())
+            .set("availableSeats", available)
+            .set("seatLayout", layout);
+        if (mongoTemplate.updateFirst(Query.query(criteria), update, Flight.class).getModifiedCount() == 0) {
+            System.err.println("Not resizing flight " + id + " to " + flightDetails.getTotalSeats() + " seats: it has bookings");
+        }
+    }
+
+    public FlightImportResult importFlights(InputStream input, FlightImportService.Format format) throws IOException {
+        FlightImportResult result = flightImportService.importFlights(input, format);
+        if (result.getInserted() > 0) {
+            // One rebuild instead of a per-flight index update for every imported row
+            refreshSearchIndex();
+        }
+        System.out.println("Flight import: " + result.getInserted() + " inserted, " + result.getFailed() + " failed");
+        return result;
+    }
+
     public boolean deleteFlight(String id) {
-        if (flightRepository.existsById(id)) {
+        Optional<Flight> optionalFlight = flightRepository.findById(id);
+        if (optionalFlight.isPresent()) {
+            flightScheduleService.occurrenceDeleted(optionalFlight.get());
+            // Cancel bookings before the flight goes, and again after for any booked in between
+            flightCascadeService.flightCancelled(optionalFlight.get());
             flightRepository.deleteById(id);
+            flightCascadeService.flightCancelled(optionalFlight.get());
+            seatInventoryService.evict(id);
+            routeSearchIndex.remove(id);
+            fareCalendar.remove(id);
+            connectionSearchEngine.remove(id);
+            flightSearchCache.flightChanged(FlightSummary.from(optionalFlight.get()), null);
             return true;
         }
         return false;
     }
 
     public boolean updateSeatAvailability(String flightId, List<String> seatNumbers, boolean available) {
-        Optional<Flight> optionalFlight = flightRepository.findById(flightId);
-        if (optionalFlight.isPresent()) {
-            Flight flight = optionalFlight.get();
-            
-            for (Flight.SeatRow row : flight.getSeatLayout()) {
-                for (Flight.Seat seat : row.getSeats()) {
-                    if (seatNumbers.contains(seat.getSeatNumber())) {
-                        seat.setAvailable(available);
-                    }
-                }
+        return seatInventoryService.updateAvailability(flightId, seatNumbers, available);
+    }
+
+    public boolean claimSeats(String flightId, List<String> seatNumbers) {
+        return seatInventoryService.claimSeats(flightId, seatNumbers);
+    }
+
+    public boolean releaseSeats(String flightId, List<String> seatNumbers) {
+        return seatInventoryService.releaseSeats(flightId, seatNumbers);
+    }
+
+    public SeatHold holdSeats(String flightId, String userId, List<String> seatNumbers) {
+        return seatHoldService.holdSeats(flightId, userId, seatNumbers);
+    }
+
+    /**
+     * Picks the best block of seats for the party and holds it. The hold goes through the normal
+     * conditional claim; if another booking takes one of the seats first, the claim fails, the stale
+     * inventory is dropped and the block is picked again from fresh availability.
+     */
+    public SeatHold holdGroupSeats(String flightId, String userId, int partySize, Flight.Seat.SeatType seatType) {
+        FlightSummary summary = routeSearchIndex.get(flightId);
+        Flight.ScenicSide scenicSide = summary != null ? summary.getScenicSide() : null;
+        for (int attempt = 0; attempt < MAX_GROUP_HOLD_ATTEMPTS; attempt++) {
+            SeatInventory inventory = seatInventoryService.getInventory(flightId);
+            if (inventory == null) {
+                throw new IllegalArgumentException("Flight not found");
+            }
+            if (inventory.getTotalSeats() == 0) {
+                throw new IllegalArgumentException("Flight has no seat map to allocate from");
+            }
+
+            List<String> seats = SeatAllocator.allocate(inventory, partySize, seatType, scenicSide);
+            if (seats.isEmpty()) {
+                return null;
+            }
+            SeatHold hold = seatHoldService.holdSeats(flightId, userId, seats);
+            if (hold != null) {
+                return hold;
             }
-            
-            // Update available seats count
-            long availableCount = flight.getSeatLayout().stream()
-                .flatMap(row -> row.getSeats().stream())
-                .mapToLong(seat -> seat.isAvailable() ? 1 : 0)
-                .sum();
-            
-            flight.setAvailableSeats((int) availableCount);
-            flight.setUpdatedAt(LocalDateTime.now());
-            
-            flightRepository.save(flight);
-            return true;
         }
-        return false;
+        return null;
+    }
+
+    public SeatHold extendHold(String holdId, String userId) {
+        return seatHoldService.extendHold(holdId, userId);
+    }
+
+    public boolean releaseHold(String holdId, String userId) {
+        return seatHoldService.releaseHold(holdId, userId);
+    }
+
+    public boolean convertHoldToBooking(String holdId, String userId, String flightId, List<String> seatNumbers) {
+        return seatHoldService.convertToBooking(holdId, userId, flightId, seatNumbers);
+    }
+
+    private LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public List<FareCalendarDay> getFareCalendar(String departure, String arrival, YearMonth month) {
+        requireRoute(departure, arrival);
+        flightScheduleService.materializeLater(departure, arrival, month.atDay(1), month.atEndOfMonth(), this::indexNewFlight);
+        return fareCalendar.getMonth(departure, arrival, month);
+    }
+
+    public List<Itinerary> searchConnections(String departure, String arrival, LocalDate date,
+                                             int maxLegs, int minConnectionMinutes, int limit) {
+        if (maxLegs < 1 || minConnectionMinutes < 0 || limit < 1) {
+            throw new IllegalArgumentException("maxLegs and limit must be positive and minConnectionMinutes non-negative");
+        }
+        requireRoute(departure, arrival);
+        // First and last legs are written now; intermediate cities are unknown up front, so the rest of
+        // the day's schedules are written in the background and join later searches
+        for (Flight flight : flightScheduleService.materialize(departure, null, date)) {
+            indexNewFlight(flight);
+        }
+        for (Flight flight : flightScheduleService.materialize(null, arrival, date)) {
+            indexNewFlight(flight);
+        }
+        flightScheduleService.materializeLater(null, null, date, date, this::indexNewFlight);
+        return connectionSearchEngine.search(departure, arrival, date, Math.min(maxLegs, MAX_CONNECTION_LEGS),
+            Duration.ofMinutes(minConnectionMinutes), Math.min(limit, MAX_CONNECTION_RESULTS));
+    }
+
+    public Map<String, Object> getSearchCacheStats() {
+        return flightSearchCache.stats();
+    }
+
+    public SseEmitter watchSeats(String flightId) {
+        // The snapshot must include seats sold through other nodes since this one cached the flight
+        seatInventoryService.evict(flightId);
+        SeatInventory inventory = seatInventoryService.getInventory(flightId);
+        if (inventory == null) {
+            return null;
+        }
+        return seatStreamService.subscribe(flightId, inventory.getAvailableCount(),
+            inventory.unavailableSeats(), seatHoldService.heldSeats(flightId));
     }
-}
\ No newline at end of file
+}
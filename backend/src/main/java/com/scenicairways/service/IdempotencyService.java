@@ -0,0 +1,293 @@
+package com.scenicairways.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scenicairways.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per (user, Idempotency-Key). The first request claims the key with an
+ * insert; retries after it finished get the stored result back. Concurrent duplicates on this node wait
+ * for the original instead of polling, and duplicates arriving at another node poll the record. A claim
+ * is a lease: if its holder died before finishing, a retry after {@code lease-seconds} takes it over.
+ * A result whose completion could not be written is kept here and written again until it lands.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final long WAIT_MILLIS = 10000;
+    private static final long POLL_MILLIS = 200;
+    private static final int COMPLETE_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // Finished requests whose completion write failed, by store key, until a retry writes them
+    private final Map<String, Completion> unrecorded = new ConcurrentHashMap<>();
+
+    private record InFlight(String requestHash, CompletableFuture<String> resultId) {
+    }
+
+    private record Completion(String requestHash, String resultId) {
+    }
+
+    public record Outcome<T>(T result, boolean replayed) {
+    }
+
+    /**
+     * Runs the action unless the key was already used for this request, in which case the earlier result
+     * is loaded through {@code replay}. Reusing a key for a different request is rejected.
+     */
+    public <T> Outcome<T> execute(String userId, String key, Object request, Supplier<T> action,
+                                  Function<T, String> resultId, Function<String, Optional<T>> replay) {
+        String storeKey = userId + ":" + key;
+        String requestHash = hash(request);
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(storeKey, mine);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            return replayed(awaitLocal(running), replay);
+        }
+
+        try {
+            Completion pending = unrecorded.get(storeKey);
+            if (pending != null) {
+                checkSameRequest(pending.requestHash(), requestHash);
+                mine.resultId().complete(pending.resultId());
+                return replayed(pending.resultId(), replay);
+            }
+
+            String claimToken = UUID.randomUUID().toString();
+            IdempotencyRecord existing = claim(storeKey, requestHash, claimToken);
+            if (existing != null) {
+                checkSameRequest(existing.getRequestHash(), requestHash);
+                String id = existing.isCompleted() ? existing.getResultId() : awaitRemote(storeKey);
+                mine.resultId().complete(id);
+                return replayed(id, replay);
+            }
+
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                // Let the client retry with the same key, unless a retry already took the claim over
+                mongoTemplate.remove(Query.query(Criteria.where("id").is(storeKey).and("claimToken").is(claimToken)),
+                    IdempotencyRecord.class);
+                throw e;
+            }
+            String id = resultId.apply(result);
+            complete(storeKey, new Completion(requestHash, id));
+            mine.resultId().complete(id);
+            return new Outcome<>(result, false);
+        } catch (RuntimeException e) {
+            mine.resultId().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(storeKey, mine);
+        }
+    }
+
+    // Re-run requests whose completion write failed; the action already ran, so only the record is missing
+    @Scheduled(fixedDelay = 5000)
+    public void recordUnrecorded() {
+        unrecorded.forEach((storeKey, completion) -> {
+            try {
+                writeCompletion(storeKey, completion);
+                unrecorded.remove(storeKey, completion);
+            } catch (RuntimeException e) {
+                System.err.println("Still cannot record idempotent result " + completion.resultId() + " for " + storeKey
+                    + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Returns null when we claimed the key, otherwise the record that holds it
+    private IdempotencyRecord claim(String storeKey, String requestHash, String claimToken) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(storeKey);
+        record.setRequestHash(requestHash);
+        record.setClaimToken(claimToken);
+        record.setClaimedAt(now);
+        record.setExpiresAt(now.plusHours(ttlHours));
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                mongoTemplate.insert(record);
+                return null;
+            } catch (DuplicateKeyException e) {
+                IdempotencyRecord existing = mongoTemplate.findById(storeKey, IdempotencyRecord.class);
+                if (existing == null) {
+                    // Removed between our insert and read (failed original or expiry); try again
+                    continue;
+                }
+                if (!existing.isCompleted() && leaseExpired(existing, now)
+                        && existing.getRequestHash().equals(requestHash) && takeOver(existing, claimToken, now)) {
+                    System.err.println("Took over idempotency key " + storeKey + " claimed at " + claimedAt(existing));
+                    return null;
+                }
+                return existing;
+            }
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private boolean leaseExpired(IdempotencyRecord record, LocalDateTime now) {
+        LocalDateTime claimedAt = claimedAt(record);
+        return claimedAt == null || claimedAt.plusSeconds(leaseSeconds).isBefore(now);
+    }
+
+    // Records written before leases carry only their creation time
+    private LocalDateTime claimedAt(IdempotencyRecord record) {
+        return record.getClaimedAt() != null ? record.getClaimedAt() : record.getCreatedAt();
+    }
+
+    // Conditional on the claim we saw, so only one retry wins an expired lease
+    private boolean takeOver(IdempotencyRecord existing, String claimToken, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("id").is(existing.getId()).and("completed").is(false)
+            .and("claimToken").is(existing.getClaimToken()));
+        Update update = new Update().set("claimToken", claimToken).set("claimedAt", now);
+        return mongoTemplate.updateFirst(query, update, IdempotencyRecord.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Records the result. The action already ran, so a failed write must not let a retry run it again:
+     * it is retried here, then kept on this node (answering local retries) and written in the background.
+     */
+    private void complete(String storeKey, Completion completion) {
+        RuntimeException failure = null;
+        for (int attempt = 0; attempt < COMPLETE_ATTEMPTS; attempt++) {
+            try {
+                writeCompletion(storeKey, completion);
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                try {
+                    Thread.sleep(POLL_MILLIS * (attempt + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        System.err.println("Could not record idempotent result " + completion.resultId() + " for " + storeKey
+            + ", retrying in the background: " + (failure != null ? failure.getMessage() : "interrupted"));
+        unrecorded.put(storeKey, completion);
+    }
+
+    private void writeCompletion(String storeKey, Completion completion) {
+        String id = completion.resultId();
+        // Not conditional on our claim: if a retry took the lease over, the first result to finish is kept
+        long matched = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(storeKey).and("completed").is(false)),
+            new Update().set("completed", true).set("resultId", id).unset("claimToken"), IdempotencyRecord.class)
+            .getMatchedCount();
+        if (matched == 0) {
+            IdempotencyRecord record = mongoTemplate.findById(storeKey, IdempotencyRecord.class);
+            if (record == null) {
+                // Expired or removed meanwhile; store it again so retries still replay
+                IdempotencyRecord completed = new IdempotencyRecord();
+                completed.setId(storeKey);
+                completed.setRequestHash(completion.requestHash());
+                completed.setCompleted(true);
+                completed.setResultId(id);
+                completed.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+                mongoTemplate.save(completed);
+            } else if (!id.equals(record.getResultId())) {
+                System.err.println("Idempotency key " + storeKey + " ran twice after a lease takeover; kept result "
+                    + record.getResultId() + ", also created " + id);
+            }
+        }
+    }
+
+    private String awaitLocal(InFlight running) {
+        try {
+            return running.resultId().get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    // The original is running on another node; poll until it finishes or gives the key back
+    private String awaitRemote(String storeKey) {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            IdempotencyRecord record = mongoTemplate.findById(storeKey, IdempotencyRecord.class);
+            if (record == null) {
+                throw new IllegalStateException("The original request with this Idempotency-Key failed; retry it");
+            }
+            if (record.isCompleted()) {
+                return record.getResultId();
+            }
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private <T> Outcome<T> replayed(String id, Function<String, Optional<T>> replay) {
+        T result = replay.apply(id)
+            .orElseThrow(() -> new IllegalStateException("The result of the original request no longer exists"));
+        return new Outcome<>(result, true);
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.PageResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque "after" token for keyset pagination: the sort key values of the last item on a page.
+ */
+public final class KeysetCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String... keys) {
+        String joined = String.join(SEPARATOR, keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedKeys) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = joined.split("\\|", -1);
+            if (keys.length != expectedKeys) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public static int pageSize(int requested) {
+        if (requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from a query that fetched one row more than the page size;
+     * the extra row only signals that another page exists.
+     */
+    public static <T> PageResponse<T> toPage(List<T> items, int pageSize, Function<T, String> cursorOf) {
+        if (items.size() <= pageSize) {
+            return new PageResponse<>(items, null);
+        }
+        List<T> page = items.subList(0, pageSize);
+        return new PageResponse<>(page, cursorOf.apply(page.get(pageSize - 1)));
+    }
+}
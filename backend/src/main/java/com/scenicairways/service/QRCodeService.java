@@ -1,49 +1,154 @@
 package com.scenicairways.service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 
+/**
+ * Renders QR codes on demand. Images are written straight from the {@link BitMatrix} as 1-bit grayscale
+ * PNGs and kept in an LRU cache bounded by total bytes, keyed by a hash of the encoded text; the same
+ * hash serves as the image's ETag.
+ */
 @Service
 public class QRCodeService {
 
-    private static final String QR_CODE_IMAGE_PATH = "./qr-codes/";
+    private static final int SIZE = 350;
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
 
-    public String generateQRCode(String text, String fileName) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 350, 350);
+    @Value("${app.qr.cache-max-bytes:16777216}")
+    private long cacheMaxBytes;
 
-            Path path = FileSystems.getDefault().getPath(QR_CODE_IMAGE_PATH + fileName + ".png");
-            MatrixToImageWriter.writeToPath(bitMatrix, "PNG", path);
+    private final LinkedHashMap<String, QRImage> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
 
-            return path.toString();
-        } catch (WriterException | IOException e) {
-            System.err.println("Could not generate QR Code: " + e.getMessage());
-            return null;
+    public record QRImage(byte[] png, String etag) {
+    }
+
+    public QRImage render(String text) {
+        String hash = hash(text);
+        synchronized (this) {
+            QRImage cached = cache.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        QRImage image = new QRImage(encode(text), hash);
+        synchronized (this) {
+            if (cache.putIfAbsent(hash, image) == null) {
+                cachedBytes += image.png().length;
+                evict();
+            }
         }
+        return image;
     }
 
     public byte[] generateQRCodeBytes(String text) {
         try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 350, 350);
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            return outputStream.toByteArray();
-        } catch (WriterException | IOException e) {
+            return render(text).png();
+        } catch (IllegalStateException e) {
             System.err.println("Could not generate QR Code bytes: " + e.getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private void evict() {
+        Iterator<Map.Entry<String, QRImage>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > cacheMaxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().png().length;
+            eldest.remove();
+        }
+    }
+
+    private byte[] encode(String text) {
+        try {
+            BitMatrix matrix = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, SIZE, SIZE);
+            return writePng(matrix);
+        } catch (WriterException | IOException e) {
+            throw new IllegalStateException("Could not generate QR Code: " + e.getMessage(), e);
+        }
+    }
+
+    // Grayscale, bit depth 1: one filter byte then the packed row, with set modules as black (0) pixels
+    private byte[] writePng(BitMatrix matrix) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+
+        ByteArrayOutputStream pixels = new ByteArrayOutputStream(height * (rowBytes + 1));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(pixels, deflater)) {
+            byte[] row = new byte[rowBytes + 1];
+            for (int y = 0; y < height; y++) {
+                row[0] = 0;
+                for (int i = 1; i <= rowBytes; i++) {
+                    row[i] = (byte) 0xff;
+                }
+                for (int x = 0; x < width; x++) {
+                    if (matrix.get(x, y)) {
+                        row[1 + x / 8] &= (byte) ~(0x80 >>> (x % 8));
+                    }
+                }
+                deflated.write(row);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(pixels.size() + 64);
+        DataOutputStream out = new DataOutputStream(png);
+        out.write(PNG_SIGNATURE);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(width);
+        headerOut.writeInt(height);
+        headerOut.writeByte(1);  // bit depth
+        headerOut.writeByte(0);  // grayscale
+        headerOut.writeByte(0);  // deflate
+        headerOut.writeByte(0);  // adaptive filtering
+        headerOut.writeByte(0);  // no interlace
+        writeChunk(out, "IHDR", header.toByteArray());
+        writeChunk(out, "IDAT", pixels.toByteArray());
+        writeChunk(out, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    private void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
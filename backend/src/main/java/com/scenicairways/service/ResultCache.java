@@ -0,0 +1,159 @@
+package com.scenicairways.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Small LRU cache with a per-entry TTL and hit/miss/eviction counters. Entries carry tags (e.g. the ids
+ * of the flights in a result), so a change to one flight drops only the entries that hold it. Every
+ * invalidation is stamped with a sequence number; a value loaded before an invalidation that affects
+ * it is never stored after it, while loads the invalidation does not touch still are.
+ */
+public class ResultCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<K>> keysByTag = new HashMap<>();
+    // Sequence of the last invalidation of each tag, for loads that were running when it happened
+    private final Map<String, Long> tagInvalidatedAt = new HashMap<>();
+    private long sequence;
+    // Loads older than this are refused: a predicate invalidation ran since, or tag history was dropped
+    private long floor;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ResultCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /** Take this before loading a value and pass it to {@link #put}. */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    public void put(K key, V value, long loadedAt) {
+        put(key, value, Set.of(), loadedAt);
+    }
+
+    public synchronized void put(K key, V value, Collection<String> tags, long loadedAt) {
+        if (loadedAt < floor) {
+            return;
+        }
+        for (String tag : tags) {
+            if (tagInvalidatedAt.getOrDefault(tag, Long.MIN_VALUE) > loadedAt) {
+                return;
+            }
+        }
+        remove(key);
+        Set<String> entryTags = Set.copyOf(tags);
+        entries.put(key, new Entry<>(value, entryTags, System.currentTimeMillis() + ttlMillis));
+        for (String tag : entryTags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> evicted = eldest.next();
+            eldest.remove();
+            unindex(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+    }
+
+    /** Drops the entries carrying the tag; touches only those entries. */
+    public synchronized int invalidateTag(String tag) {
+        sequence++;
+        tagInvalidatedAt.put(tag, sequence);
+        if (tagInvalidatedAt.size() > maxEntries * 4) {
+            // Forget per-tag history; loads still running are refused instead
+            tagInvalidatedAt.clear();
+            floor = sequence;
+        }
+        Set<K> keys = keysByTag.remove(tag);
+        if (keys == null) {
+            return 0;
+        }
+        for (K key : keys) {
+            remove(key);
+        }
+        return keys.size();
+    }
+
+    /** Drops every entry matching the predicate. Scans the whole cache, so keep it for rare changes. */
+    public synchronized int invalidateIf(BiPredicate<K, V> predicate) {
+        sequence++;
+        floor = sequence;
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                iterator.remove();
+                unindex(entry.getKey(), entry.getValue());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) entries.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    private void remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(K key, Entry<V> entry) {
+        for (String tag : entry.tags) {
+            Set<K> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final Set<String> tags;
+        private final long expiresAt;
+
+        private Entry(V value, Set<String> tags, long expiresAt) {
+            this.value = value;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
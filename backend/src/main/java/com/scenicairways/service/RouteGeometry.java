@@ -0,0 +1,230 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route paths as encoded polylines (precision 5), simplified with Douglas-Peucker once per detail
+ * level when a flight is written. A flight keeps only its named points in {@code route} for map
+ * markers; the full path lives in the finest level.
+ */
+public final class RouteGeometry {
+
+    public static final String LOW = "low";
+    public static final String MEDIUM = "medium";
+    public static final String HIGH = "high";
+    public static final String FULL = "full";
+
+    // Tolerances in degrees, roughly 5 km, 1 km and 100 m; FULL keeps every point
+    private static final Map<String, Double> TOLERANCES = new LinkedHashMap<>();
+
+    static {
+        TOLERANCES.put(LOW, 0.05);
+        TOLERANCES.put(MEDIUM, 0.01);
+        TOLERANCES.put(HIGH, 0.001);
+        TOLERANCES.put(FULL, 0.0);
+    }
+
+    private RouteGeometry() {
+    }
+
+    /**
+     * Builds the polylines from the flight's route and strips the unnamed waypoints that only
+     * describe the path. A route holding markers only (as returned to clients) keeps the existing
+     * polylines while every marker still lies on the stored path, in order; a marker that was moved,
+     * added or reordered rebuilds them from the markers.
+     */
+    public static void compact(Flight flight) {
+        List<Flight.RoutePoint> route = flight.getRoute();
+        if (route == null || route.size() < 2) {
+            flight.setRoutePolylines(null);
+            return;
+        }
+        boolean hasPathPoints = route.stream().anyMatch(RouteGeometry::isPathPoint);
+        Map<String, String> polylines = flight.getRoutePolylines();
+        if (!hasPathPoints && polylines != null && polylines.get(FULL) != null
+                && followsPath(route, decode(polylines.get(FULL)))) {
+            return;
+        }
+
+        flight.setRoutePolylines(encodeLevels(route));
+        if (hasPathPoints) {
+            List<Flight.RoutePoint> markers = new ArrayList<>();
+            for (Flight.RoutePoint point : route) {
+                if (!isPathPoint(point)) {
+                    markers.add(point);
+                }
+            }
+            flight.setRoute(markers);
+        }
+    }
+
+    /** Level to serve for a map zoom (0 = whole world, 18 = street level). */
+    public static String levelForZoom(int zoom) {
+        if (zoom <= 4) {
+            return LOW;
+        } else if (zoom <= 7) {
+            return MEDIUM;
+        } else if (zoom <= 10) {
+            return HIGH;
+        }
+        return FULL;
+    }
+
+    public static Map<String, String> encodeLevels(List<Flight.RoutePoint> route) {
+        double[] lats = new double[route.size()];
+        double[] lngs = new double[route.size()];
+        for (int i = 0; i < route.size(); i++) {
+            lats[i] = route.get(i).getLat();
+            lngs[i] = route.get(i).getLng();
+        }
+
+        Map<String, String> levels = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> level : TOLERANCES.entrySet()) {
+            boolean[] keep = simplify(lats, lngs, level.getValue());
+            levels.put(level.getKey(), encode(lats, lngs, keep));
+        }
+        return levels;
+    }
+
+    public static String encode(double[] lats, double[] lngs, boolean[] keep) {
+        StringBuilder encoded = new StringBuilder();
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < lats.length; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            long lat = Math.round(lats[i] * 1e5);
+            long lng = Math.round(lngs[i] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lng - previousLng, encoded);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    public static List<double[]> decode(String encoded) {
+        List<double[]> points = new ArrayList<>();
+        int index = 0;
+        long lat = 0;
+        long lng = 0;
+        while (index < encoded.length()) {
+            long[] result = new long[1];
+            index = decodeValue(encoded, index, result);
+            lat += result[0];
+            index = decodeValue(encoded, index, result);
+            lng += result[0];
+            points.add(new double[] { lat / 1e5, lng / 1e5 });
+        }
+        return points;
+    }
+
+    // Markers must match path points in order, starting at the first point and ending at the last
+    private static boolean followsPath(List<Flight.RoutePoint> markers, List<double[]> path) {
+        if (path.isEmpty() || !matches(markers.get(0), path.get(0))
+                || !matches(markers.get(markers.size() - 1), path.get(path.size() - 1))) {
+            return false;
+        }
+        int next = 0;
+        for (Flight.RoutePoint marker : markers) {
+            while (next < path.size() && !matches(marker, path.get(next))) {
+                next++;
+            }
+            if (next == path.size()) {
+                return false;
+            }
+            next++;
+        }
+        return true;
+    }
+
+    // Equal at the polyline's precision
+    private static boolean matches(Flight.RoutePoint marker, double[] point) {
+        return Math.round(marker.getLat() * 1e5) == Math.round(point[0] * 1e5)
+            && Math.round(marker.getLng() * 1e5) == Math.round(point[1] * 1e5);
+    }
+
+    private static boolean isPathPoint(Flight.RoutePoint point) {
+        return point.getType() == Flight.RoutePoint.RoutePointType.WAYPOINT
+            && (point.getName() == null || point.getName().isBlank());
+    }
+
+    // Iterative Douglas-Peucker; longitude is scaled by cos(latitude) so tolerances hold away from the equator
+    private static boolean[] simplify(double[] lats, double[] lngs, double tolerance) {
+        int n = lats.length;
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        if (tolerance <= 0) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+
+        Deque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[] { 0, n - 1 });
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int first = segment[0];
+            int last = segment[1];
+            double scale = Math.cos(Math.toRadians((lats[first] + lats[last]) / 2));
+
+            double maxDistance = 0;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = distanceToSegment(lats[i], lngs[i] * scale,
+                    lats[first], lngs[first] * scale, lats[last], lngs[last] * scale);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest != -1 && maxDistance > tolerance) {
+                keep[farthest] = true;
+                segments.push(new int[] { first, farthest });
+                segments.push(new int[] { farthest, last });
+            }
+        }
+        return keep;
+    }
+
+    private static double distanceToSegment(double y, double x, double y1, double x1, double y2, double x2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        double px = x1 + t * dx - x;
+        double py = y1 + t * dy - y;
+        return Math.sqrt(px * px + py * py);
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            encoded.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        encoded.append((char) (shifted + 63));
+    }
+
+    private static int decodeValue(String encoded, int index, long[] result) {
+        long value = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            chunk = encoded.charAt(index++) - 63;
+            value |= (long) (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        result[0] = (value & 1) != 0 ? ~(value >> 1) : value >> 1;
+        return index;
+    }
+}
@@ -0,0 +1,235 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of flight summaries by normalized departure and arrival city and, within a city, by
+ * date. City names are few compared to flights, so matching walks the distinct cities (prefix matches
+ * straight from the sorted keys) and a dated search then reads only that range of each city's dates.
+ * <p>
+ * Local writes update the index directly; flights and seat counts changed by other nodes only show up
+ * after the periodic rebuild in {@link FlightService#refreshSearchIndex()}, so across nodes the index is
+ * eventually consistent. Seat counts shown from it are a guide; claims are always decided by Mongo.
+ */
+@Component
+public class RouteSearchIndex {
+
+    private static final int PREFIX_MATCH = 0;
+    private static final int SUBSTRING_MATCH = 1;
+    // Bucket for flights without a date; only undated searches see them
+    private static final LocalDate UNDATED = LocalDate.MIN;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> flights = new HashMap<>();
+    private final NavigableMap<String, NavigableMap<LocalDate, Set<String>>> byDeparture = new TreeMap<>();
+    private final NavigableMap<String, NavigableMap<LocalDate, Set<String>>> byArrival = new TreeMap<>();
+    private volatile boolean warm;
+
+    private record Entry(FlightSummary flight, String departure, String arrival, LocalDate date) {
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public void rebuild(Collection<FlightSummary> allFlights) {
+        lock.writeLock().lock();
+        try {
+            flights.clear();
+            byDeparture.clear();
+            byArrival.clear();
+            for (FlightSummary flight : allFlights) {
+                add(flight);
+            }
+            warm = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(FlightSummary flight) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(flight.getId());
+            add(flight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String flightId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(flightId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FlightSummary get(String flightId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = flights.get(flightId);
+            return entry != null ? entry.flight() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Swaps in a copy, so summaries already handed out by search or get never change under their reader
+    public void updateAvailableSeats(String flightId, int availableSeats) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = flights.get(flightId);
+            if (entry != null) {
+                FlightSummary updated = entry.flight().copy();
+                updated.setAvailableSeats(availableSeats);
+                flights.put(flightId, new Entry(updated, entry.departure(), entry.arrival(), entry.date()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds flights whose departure and arrival contain the given text, prefix matches first,
+     * optionally restricted to an inclusive date range. A blank departure or arrival matches nothing.
+     */
+    public List<FlightSummary> search(String departure, String arrival, LocalDate fromDate, LocalDate toDate) {
+        String departureQuery = normalize(departure);
+        String arrivalQuery = normalize(arrival);
+        if (departureQuery.isEmpty() || arrivalQuery.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> departureCities = match(byDeparture, departureQuery);
+            Map<String, Integer> arrivalCities = match(byArrival, arrivalQuery);
+            if (departureCities.isEmpty() || arrivalCities.isEmpty()) {
+                return List.of();
+            }
+
+            // Walk the postings of the side with fewer matching cities and look the other side up by city
+            boolean fromDeparture = departureCities.size() <= arrivalCities.size();
+            Map<String, NavigableMap<LocalDate, Set<String>>> postings = fromDeparture ? byDeparture : byArrival;
+            Map<String, Integer> walked = fromDeparture ? departureCities : arrivalCities;
+            Map<String, Integer> other = fromDeparture ? arrivalCities : departureCities;
+
+            List<FlightSummary> results = new ArrayList<>();
+            Map<String, Integer> ranks = new HashMap<>();
+            for (Map.Entry<String, Integer> city : walked.entrySet()) {
+                for (Set<String> ids : dates(postings.get(city.getKey()), fromDate, toDate).values()) {
+                    for (String flightId : ids) {
+                        Entry entry = flights.get(flightId);
+                        Integer otherRank = other.get(fromDeparture ? entry.arrival() : entry.departure());
+                        if (otherRank != null) {
+                            results.add(entry.flight());
+                            ranks.put(flightId, city.getValue() + otherRank);
+                        }
+                    }
+                }
+            }
+
+            results.sort(Comparator.<FlightSummary>comparingInt(flight -> ranks.get(flight.getId()))
+                .thenComparing(FlightSummary::getDate, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(FlightSummary::getDepartureTime, Comparator.nullsLast(Comparator.<LocalTime>naturalOrder())));
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Cities containing the query, with their rank; prefix matches are a range of the sorted keys
+    private Map<String, Integer> match(NavigableMap<String, NavigableMap<LocalDate, Set<String>>> postings, String query) {
+        Map<String, Integer> cities = new HashMap<>();
+        for (String city : postings.tailMap(query, true).navigableKeySet()) {
+            if (!city.startsWith(query)) {
+                break;
+            }
+            cities.put(city, PREFIX_MATCH);
+        }
+        for (String city : postings.keySet()) {
+            if (!cities.containsKey(city) && city.contains(query)) {
+                cities.put(city, SUBSTRING_MATCH);
+            }
+        }
+        return cities;
+    }
+
+    private static NavigableMap<LocalDate, Set<String>> dates(NavigableMap<LocalDate, Set<String>> byDate,
+                                                             LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null && toDate == null) {
+            return byDate;
+        }
+        // A bounded search never matches undated flights, so the lower bound always skips their bucket
+        LocalDate from = fromDate != null ? fromDate : UNDATED.plusDays(1);
+        return toDate != null ? byDate.subMap(from, true, toDate, true) : byDate.tailMap(from, true);
+    }
+
+    private void add(FlightSummary flight) {
+        if (flight.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(flight, normalize(flight.getDeparture()), normalize(flight.getArrival()),
+            flight.getDate() != null ? flight.getDate() : UNDATED);
+        flights.put(flight.getId(), entry);
+        byDeparture.computeIfAbsent(entry.departure(), key -> new TreeMap<>())
+            .computeIfAbsent(entry.date(), key -> new HashSet<>()).add(flight.getId());
+        byArrival.computeIfAbsent(entry.arrival(), key -> new TreeMap<>())
+            .computeIfAbsent(entry.date(), key -> new HashSet<>()).add(flight.getId());
+    }
+
+    private void removeEntry(String flightId) {
+        Entry existing = flights.remove(flightId);
+        if (existing == null) {
+            return;
+        }
+        removePosting(byDeparture, existing.departure(), existing.date(), flightId);
+        removePosting(byArrival, existing.arrival(), existing.date(), flightId);
+    }
+
+    private void removePosting(Map<String, NavigableMap<LocalDate, Set<String>>> postings, String city,
+                               LocalDate date, String flightId) {
+        NavigableMap<LocalDate, Set<String>> byDate = postings.get(city);
+        if (byDate == null) {
+            return;
+        }
+        Set<String> ids = byDate.get(date);
+        if (ids != null) {
+            ids.remove(flightId);
+            if (ids.isEmpty()) {
+                byDate.remove(date);
+            }
+        }
+        if (byDate.isEmpty()) {
+            postings.remove(city);
+        }
+    }
+}
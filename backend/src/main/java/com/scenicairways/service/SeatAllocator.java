@@ -0,0 +1,129 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Picks seats for a party from a flight's availability bitmap. A block of neighbouring seats in one row
+ * always beats a party split across rows; among equal shapes, seats on the scenic side (windows most)
+ * and rows nearer the front win. Rows are assumed to have a single centre aisle.
+ */
+public final class SeatAllocator {
+
+    private static final int MAX_ROW_SPAN = 3;
+    private static final int SAME_ROW_BONUS = 1000;
+    private static final int ROW_SPAN_PENALTY = 100;
+    private static final int AISLE_PENALTY = 50;
+    private static final int SCENIC_WEIGHT = 10;
+
+    private SeatAllocator() {
+    }
+
+    /**
+     * Returns the seat numbers of the best block for the party, or an empty list if the flight has
+     * too few matching seats within {@link #MAX_ROW_SPAN} consecutive rows.
+     */
+    public static List<String> allocate(SeatInventory inventory, int partySize, Flight.Seat.SeatType seatType,
+                                        Flight.ScenicSide scenicSide) {
+        BitSet free = inventory.availability();
+        int[][] rows = inventory.rows();
+        for (int[] row : rows) {
+            for (int seat : row) {
+                if (seatType != null && inventory.typeOf(seat) != seatType) {
+                    free.clear(seat);
+                }
+            }
+        }
+
+        int[] best = null;
+        int bestScore = Integer.MIN_VALUE;
+
+        // Neighbouring seats within one row
+        for (int r = 0; r < rows.length; r++) {
+            int[] row = rows[r];
+            int run = 0;
+            for (int column = 0; column < row.length; column++) {
+                run = free.get(row[column]) ? run + 1 : 0;
+                if (run < partySize) {
+                    continue;
+                }
+                int start = column - partySize + 1;
+                int score = SAME_ROW_BONUS - r + SCENIC_WEIGHT * scenicScore(start, column, row.length, scenicSide);
+                if (start < row.length / 2 && column >= row.length / 2) {
+                    score -= AISLE_PENALTY;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = new int[partySize];
+                    System.arraycopy(row, start, best, 0, partySize);
+                }
+            }
+        }
+        if (best == null) {
+            best = allocateAcrossRows(free, rows, partySize, scenicSide);
+        }
+
+        List<String> seats = new ArrayList<>(partySize);
+        if (best != null) {
+            for (int seat : best) {
+                seats.add(inventory.seatNumberOf(seat));
+            }
+        }
+        return seats;
+    }
+
+    // Fills the party from consecutive rows, taking each row's seats from the scenic side inwards
+    private static int[] allocateAcrossRows(BitSet free, int[][] rows, int partySize, Flight.ScenicSide scenicSide) {
+        int[] best = null;
+        int bestScore = Integer.MIN_VALUE;
+        for (int first = 0; first < rows.length; first++) {
+            int[] picked = new int[partySize];
+            int count = 0;
+            int score = -first;
+            for (int r = first; r < rows.length && r < first + MAX_ROW_SPAN && count < partySize; r++) {
+                int[] row = rows[r];
+                for (int i = 0; i < row.length && count < partySize; i++) {
+                    int column = preferredColumn(i, row.length, scenicSide);
+                    if (free.get(row[column])) {
+                        picked[count++] = row[column];
+                        score += SCENIC_WEIGHT * scenicScore(column, column, row.length, scenicSide);
+                    }
+                }
+                score -= ROW_SPAN_PENALTY;
+            }
+            if (count == partySize && score > bestScore) {
+                bestScore = score;
+                best = picked;
+            }
+        }
+        return best;
+    }
+
+    // Column order that starts at the scenic window and works across the row
+    private static int preferredColumn(int i, int width, Flight.ScenicSide scenicSide) {
+        return scenicSide == Flight.ScenicSide.RIGHT ? width - 1 - i : i;
+    }
+
+    // One point per seat on the scenic side, two more for a window on that side
+    private static int scenicScore(int fromColumn, int toColumn, int width, Flight.ScenicSide scenicSide) {
+        if (scenicSide == null) {
+            return 0;
+        }
+        int score = 0;
+        for (int column = fromColumn; column <= toColumn; column++) {
+            boolean left = column < width / 2;
+            boolean onScenicSide = scenicSide == Flight.ScenicSide.BOTH
+                || (scenicSide == Flight.ScenicSide.LEFT) == left;
+            if (onScenicSide) {
+                score += 1;
+                if (column == 0 || column == width - 1) {
+                    score += 2;
+                }
+            }
+        }
+        return score;
+    }
+}
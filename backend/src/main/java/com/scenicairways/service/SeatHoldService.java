@@ -0,0 +1,194 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.SeatHold;
+import com.scenicairways.repository.SeatHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporary seat claims that lapse unless converted into a booking. Each node arms the holds it creates
+ * in a timing wheel for prompt expiry; a periodic sweep of the expiresAt index also releases holds whose
+ * node went away or that were never armed here. Removing the hold record decides which node releases.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final int SWEEP_BATCH = 100;
+
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.seat-hold.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final TimingWheel<String> expiryWheel = new TimingWheel<>(1000, System.currentTimeMillis());
+    private final Map<String, TimingWheel.Timeout<String>> timeouts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void restoreHolds() {
+        // Re-arm holds persisted before a restart; ones already past their deadline fire on the next tick
+        List<SeatHold> holds = seatHoldRepository.findAll();
+        for (SeatHold hold : holds) {
+            schedule(hold);
+        }
+        if (!holds.isEmpty()) {
+            System.out.println("Restored " + holds.size() + " seat holds");
+        }
+    }
+
+    public SeatHold holdSeats(String flightId, String userId, List<String> seats) {
+        if (!seatInventoryService.claimSeats(flightId, seats)) {
+            return null;
+        }
+
+        SeatHold hold = new SeatHold();
+        hold.setFlightId(flightId);
+        hold.setUserId(userId);
+        hold.setSeats(seats);
+        hold.setExpiresAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+
+        SeatHold savedHold;
+        try {
+            savedHold = seatHoldRepository.save(hold);
+        } catch (RuntimeException e) {
+            seatInventoryService.releaseSeats(flightId, seats);
+            throw e;
+        }
+        schedule(savedHold);
+        return savedHold;
+    }
+
+    public SeatHold extendHold(String holdId, String userId) {
+        // Conditional on the hold still being live so an extension can never revive an expired hold
+        Query query = Query.query(Criteria.where("id").is(holdId)
+            .and("userId").is(userId)
+            .and("expiresAt").gt(LocalDateTime.now()));
+        Update update = new Update()
+            .set("expiresAt", LocalDateTime.now().plusSeconds(ttlSeconds))
+            .set("updatedAt", LocalDateTime.now());
+        SeatHold hold = mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+        if (hold == null) {
+            return null;
+        }
+
+        cancelTimeout(holdId);
+        schedule(hold);
+        return hold;
+    }
+
+    public boolean releaseHold(String holdId, String userId) {
+        SeatHold hold = removeHold(Criteria.where("id").is(holdId).and("userId").is(userId));
+        if (hold == null) {
+            return false;
+        }
+        cancelTimeout(holdId);
+        seatInventoryService.releaseSeats(hold.getFlightId(), hold.getSeats());
+        return true;
+    }
+
+    /**
+     * Consumes a live hold for a booking. The seats stay claimed and ownership passes to the booking,
+     * so the booking path does not need to claim them again.
+     */
+    public boolean convertToBooking(String holdId, String userId, String flightId, List<String> seats) {
+        Optional<SeatHold> optionalHold = seatHoldRepository.findById(holdId);
+        if (optionalHold.isEmpty()
+                || !optionalHold.get().getFlightId().equals(flightId)
+                || !new HashSet<>(optionalHold.get().getSeats()).equals(new HashSet<>(seats))) {
+            return false;
+        }
+
+        // Removing the record is what decides the race against expiry
+        SeatHold hold = removeHold(Criteria.where("id").is(holdId)
+            .and("userId").is(userId)
+            .and("expiresAt").gt(LocalDateTime.now()));
+        if (hold == null) {
+            return false;
+        }
+        cancelTimeout(holdId);
+        return true;
+    }
+
+    /** Seats in live holds on the flight; a subset of the seats its inventory shows as taken. */
+    public List<String> heldSeats(String flightId) {
+        Query query = Query.query(Criteria.where("flightId").is(flightId).and("expiresAt").gt(LocalDateTime.now()));
+        query.fields().include("seats");
+        return mongoTemplate.find(query, SeatHold.class).stream()
+            .flatMap(hold -> hold.getSeats().stream())
+            .toList();
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void expireHolds() {
+        for (String holdId : expiryWheel.advance(System.currentTimeMillis())) {
+            timeouts.remove(holdId);
+            expireHold(holdId);
+        }
+    }
+
+    // Catches holds armed on another node that stopped, or created after this node loaded its holds
+    @Scheduled(fixedDelayString = "${app.seat-hold.sweep-ms:30000}", initialDelayString = "${app.seat-hold.sweep-ms:30000}")
+    public void sweepExpiredHolds() {
+        List<SeatHold> expired;
+        do {
+            Query query = Query.query(Criteria.where("expiresAt").lte(LocalDateTime.now())).limit(SWEEP_BATCH);
+            query.fields().include("id");
+            expired = mongoTemplate.find(query, SeatHold.class);
+            for (SeatHold hold : expired) {
+                cancelTimeout(hold.getId());
+                expireHold(hold.getId());
+            }
+        } while (expired.size() == SWEEP_BATCH);
+    }
+
+    private void expireHold(String holdId) {
+        SeatHold hold = removeHold(Criteria.where("id").is(holdId).and("expiresAt").lte(LocalDateTime.now()));
+        if (hold != null) {
+            seatInventoryService.releaseSeats(hold.getFlightId(), hold.getSeats());
+            System.out.println("Seat hold " + holdId + " expired, released seats " + hold.getSeats());
+            return;
+        }
+
+        // Extended elsewhere since this timeout was armed
+        seatHoldRepository.findById(holdId).ifPresent(this::schedule);
+    }
+
+    private SeatHold removeHold(Criteria criteria) {
+        return mongoTemplate.findAndRemove(Query.query(criteria), SeatHold.class);
+    }
+
+    private void schedule(SeatHold hold) {
+        long deadline = hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        timeouts.put(hold.getId(), expiryWheel.schedule(hold.getId(), deadline));
+    }
+
+    private void cancelTimeout(String holdId) {
+        TimingWheel.Timeout<String> timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
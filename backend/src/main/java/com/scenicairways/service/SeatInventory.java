@@ -0,0 +1,138 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact availability view of a single flight's seat layout.
+ * Each seat gets a fixed index; a set bit means the seat is available.
+ * The available count mirrors the flight's persisted availableSeats counter.
+ * For flights on a seat-map template the seats come from the template and taken seats from the
+ * flight's overlay, which is also what claims and releases update.
+ */
+public class SeatInventory {
+
+    private final String flightId;
+    private final String[] seatNumbers;
+    private final Map<String, Integer> seatIndex;
+    private final Flight.Seat.SeatType[] types;
+    // Seat indexes per cabin row in layout order; neighbours in a row are adjacent seats
+    private final int[][] rows;
+    private final BitSet available;
+    private final boolean overlay;
+    private int availableCount;
+
+    public SeatInventory(String flightId, List<Flight.SeatRow> seatLayout, int availableSeats) {
+        this(flightId, seatLayout, null, availableSeats);
+    }
+
+    public static SeatInventory fromTemplate(String flightId, List<Flight.SeatRow> templateRows,
+                                             Collection<String> takenSeats, int availableSeats) {
+        return new SeatInventory(flightId, templateRows, takenSeats != null ? Set.copyOf(takenSeats) : Set.of(), availableSeats);
+    }
+
+    private SeatInventory(String flightId, List<Flight.SeatRow> seatLayout, Set<String> takenSeats, int availableSeats) {
+        this.flightId = flightId;
+        this.overlay = takenSeats != null;
+
+        List<String> numbers = new ArrayList<>();
+        List<Boolean> flags = new ArrayList<>();
+        List<Flight.Seat.SeatType> seatTypes = new ArrayList<>();
+        List<int[]> rowList = new ArrayList<>();
+        if (seatLayout != null) {
+            for (Flight.SeatRow row : seatLayout) {
+                if (row.getSeats() == null) {
+                    continue;
+                }
+                int[] rowSeats = new int[row.getSeats().size()];
+                for (int column = 0; column < rowSeats.length; column++) {
+                    Flight.Seat seat = row.getSeats().get(column);
+                    rowSeats[column] = numbers.size();
+                    numbers.add(seat.getSeatNumber());
+                    flags.add(overlay ? !takenSeats.contains(seat.getSeatNumber()) : seat.isAvailable());
+                    seatTypes.add(seat.getType());
+                }
+                rowList.add(rowSeats);
+            }
+        }
+
+        this.seatNumbers = numbers.toArray(new String[0]);
+        this.types = seatTypes.toArray(new Flight.Seat.SeatType[0]);
+        this.rows = rowList.toArray(new int[0][]);
+        this.seatIndex = new HashMap<>(seatNumbers.length * 2);
+        this.available = new BitSet(seatNumbers.length);
+        for (int i = 0; i < seatNumbers.length; i++) {
+            seatIndex.put(seatNumbers[i], i);
+            if (flags.get(i)) {
+                available.set(i);
+            }
+        }
+        this.availableCount = availableSeats;
+    }
+
+    /**
+     * Flips the given seats to the requested state and returns the seat numbers whose
+     * state actually changed. Unknown seat numbers are ignored.
+     */
+    public synchronized List<String> apply(Collection<String> seats, boolean makeAvailable) {
+        List<String> changed = new ArrayList<>(seats.size());
+        for (String seatNumber : seats) {
+            Integer index = seatIndex.get(seatNumber);
+            if (index == null || available.get(index) == makeAvailable) {
+                continue;
+            }
+            available.set(index, makeAvailable);
+            availableCount += makeAvailable ? 1 : -1;
+            changed.add(seatNumber);
+        }
+        return changed;
+    }
+
+    /** Snapshot of the availability bitmap, indexed like {@link #rows()}. */
+    public synchronized BitSet availability() {
+        return (BitSet) available.clone();
+    }
+
+    int[][] rows() { return rows; }
+
+    Flight.Seat.SeatType typeOf(int index) { return types[index]; }
+
+    String seatNumberOf(int index) { return seatNumbers[index]; }
+
+    /** Seat numbers that are taken or held, in layout order. */
+    public synchronized List<String> unavailableSeats() {
+        List<String> seats = new ArrayList<>();
+        for (int index = available.nextClearBit(0); index < seatNumbers.length; index = available.nextClearBit(index + 1)) {
+            seats.add(seatNumbers[index]);
+        }
+        return seats;
+    }
+
+    public synchronized void adjustAvailableCount(int delta) {
+        availableCount += delta;
+    }
+
+    public synchronized boolean isAvailable(String seatNumber) {
+        Integer index = seatIndex.get(seatNumber);
+        return index != null && available.get(index);
+    }
+
+    public boolean hasSeat(String seatNumber) {
+        return seatIndex.containsKey(seatNumber);
+    }
+
+    public synchronized int getAvailableCount() { return availableCount; }
+
+    public int getTotalSeats() { return seatNumbers.length; }
+
+    public String getFlightId() { return flightId; }
+
+    public boolean isOverlay() { return overlay; }
+}
@@ -0,0 +1,222 @@
+package com.scenicairways.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.scenicairways.model.Flight;
+import com.scenicairways.model.SeatMapTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SeatInventoryService {
+
+    private static final int MAX_RELEASE_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RouteSearchIndex routeSearchIndex;
+
+    @Autowired
+    private FlightSearchCache flightSearchCache;
+
+    @Autowired
+    private SeatStreamService seatStreamService;
+
+    @Autowired
+    private FareCalendar fareCalendar;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    private final Map<String, SeatInventory> inventories = new ConcurrentHashMap<>();
+
+    public SeatInventory getInventory(String flightId) {
+        SeatInventory inventory = inventories.get(flightId);
+        if (inventory != null) {
+            return inventory;
+        }
+
+        SeatInventory loaded = loadInventory(flightId);
+        if (loaded == null) {
+            return null;
+        }
+        SeatInventory existing = inventories.putIfAbsent(flightId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public boolean updateAvailability(String flightId, List<String> seatNumbers, boolean available) {
+        return available ? releaseSeats(flightId, seatNumbers) : claimSeats(flightId, seatNumbers);
+    }
+
+    /**
+     * Atomically marks every requested seat as taken, or none of them. The whole claim is a single
+     * conditional update: it only matches while each seat is still available, so concurrent
+     * claimers on other threads or nodes cannot both win the same seat.
+     */
+    public boolean claimSeats(String flightId, List<String> seatNumbers) {
+        List<String> seats = new ArrayList<>(new LinkedHashSet<>(seatNumbers));
+        SeatInventory inventory = getInventory(flightId);
+        if (inventory == null) {
+            return false;
+        }
+
+        Criteria criteria = Criteria.where("id").is(flightId);
+        Update update = new Update()
+            .inc("availableSeats", -seats.size())
+            .set("updatedAt", LocalDateTime.now());
+
+        if (inventory.getTotalSeats() == 0) {
+            // Flights without a modelled seat layout sell against the counter only
+            criteria.and("availableSeats").gte(seats.size());
+        } else if (inventory.isOverlay()) {
+            if (!seats.stream().allMatch(inventory::hasSeat)) {
+                return false;
+            }
+            criteria.and("takenSeats").nin(seats);
+            update.addToSet("takenSeats").each(seats.toArray());
+        } else {
+            criteria.andOperator(seatConditions(seats, true));
+            update.set("seatLayout.$[].seats.$[seat].isAvailable", false)
+                .filterArray(Criteria.where("seat.seatNumber").in(seats));
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(Query.query(criteria), update, Flight.class);
+        if (result.getModifiedCount() == 0) {
+            // Our view of the flight is out of date; reload it on next access
+            evict(flightId);
+            return false;
+        }
+        if (inventory.getTotalSeats() == 0) {
+            inventory.adjustAvailableCount(-seats.size());
+        } else if (inventory.apply(seats, false).size() != seats.size()) {
+            // Mongo accepted seats we believed were taken, so our copy is stale
+            evict(flightId);
+        }
+        seatsChanged(inventory, seats, false);
+        return true;
+    }
+
+    /**
+     * Frees the requested seats that are taken. The condition names the requested seats rather than
+     * what this node's cached bitmap believes is taken, since another node may have claimed them after
+     * we loaded it; only when Mongo rejects the release is the flight reloaded to see which seats
+     * really are still taken.
+     */
+    public boolean releaseSeats(String flightId, List<String> seatNumbers) {
+        List<String> seats = new ArrayList<>(new LinkedHashSet<>(seatNumbers));
+        SeatInventory inventory = getInventory(flightId);
+        if (inventory == null) {
+            return false;
+        }
+
+        if (inventory.getTotalSeats() == 0) {
+            // Never lets the counter climb past the flight's capacity, e.g. on a repeated release
+            Criteria criteria = Criteria.where("id").is(flightId).andOperator(Criteria.expr(
+                ComparisonOperators.valueOf(ArithmeticOperators.valueOf("availableSeats").add(seats.size()))
+                    .lessThanEqualTo("totalSeats")));
+            Update update = new Update()
+                .inc("availableSeats", seats.size())
+                .set("updatedAt", LocalDateTime.now());
+            if (mongoTemplate.updateFirst(Query.query(criteria), update, Flight.class).getModifiedCount() == 0) {
+                evict(flightId);
+                System.err.println("Not releasing " + seats.size() + " seats on flight " + flightId + ": it would exceed its capacity");
+                return false;
+            }
+            inventory.adjustAvailableCount(seats.size());
+            seatsChanged(inventory, seats, true);
+            return true;
+        }
+
+        List<String> taken = seats.stream().filter(inventory::hasSeat).toList();
+        for (int attempt = 0; attempt < MAX_RELEASE_ATTEMPTS && !taken.isEmpty(); attempt++) {
+            // Only matches while every seat we are about to free is still taken, so the $inc stays exact
+            Criteria criteria = Criteria.where("id").is(flightId);
+            Update update = new Update()
+                .inc("availableSeats", taken.size())
+                .set("updatedAt", LocalDateTime.now());
+            if (inventory.isOverlay()) {
+                criteria.and("takenSeats").all(taken);
+                update.pullAll("takenSeats", taken.toArray());
+            } else {
+                criteria.andOperator(seatConditions(taken, false));
+                update.set("seatLayout.$[].seats.$[seat].isAvailable", true)
+                    .filterArray(Criteria.where("seat.seatNumber").in(taken));
+            }
+
+            UpdateResult result = mongoTemplate.updateFirst(Query.query(criteria), update, Flight.class);
+            if (result.getModifiedCount() > 0) {
+                if (inventory.apply(taken, true).size() != taken.size()) {
+                    // We had some of these seats as free already, so our copy is stale
+                    evict(flightId);
+                }
+                seatsChanged(inventory, taken, true);
+                return true;
+            }
+
+            // Some seat was freed already or our copy is stale: narrow to what Mongo says is taken now
+            evict(flightId);
+            inventory = getInventory(flightId);
+            if (inventory == null) {
+                return false;
+            }
+            SeatInventory current = inventory;
+            taken = seats.stream().filter(seat -> current.hasSeat(seat) && !current.isAvailable(seat)).toList();
+        }
+        if (taken.isEmpty()) {
+            return true;
+        }
+
+        System.err.println("Could not release seats " + seats + " on flight " + flightId + " after concurrent updates");
+        return false;
+    }
+
+    public void evict(String flightId) {
+        inventories.remove(flightId);
+    }
+
+    private void seatsChanged(SeatInventory inventory, List<String> seats, boolean available) {
+        routeSearchIndex.updateAvailableSeats(inventory.getFlightId(), inventory.getAvailableCount());
+        fareCalendar.updateAvailableSeats(inventory.getFlightId(), inventory.getAvailableCount());
+        flightSearchCache.seatsChanged(inventory.getFlightId(), routeSearchIndex.get(inventory.getFlightId()),
+            available ? seats.size() : -seats.size());
+        seatStreamService.publish(inventory.getFlightId(), seats, available, inventory.getAvailableCount());
+    }
+
+    private SeatInventory loadInventory(String flightId) {
+        Query query = Query.query(Criteria.where("id").is(flightId));
+        query.fields().include("seatLayout").include("seatMapTemplateId").include("takenSeats").include("availableSeats");
+        Flight flight = mongoTemplate.findOne(query, Flight.class);
+        if (flight == null) {
+            return null;
+        }
+        if (flight.getSeatMapTemplateId() != null) {
+            SeatMapTemplate template = seatMapService.getTemplate(flight.getSeatMapTemplateId());
+            if (template != null) {
+                return SeatInventory.fromTemplate(flightId, template.getRows(), flight.getTakenSeats(), flight.getAvailableSeats());
+            }
+            System.err.println("Seat map template " + flight.getSeatMapTemplateId() + " of flight " + flightId + " not found");
+        }
+        return new SeatInventory(flightId, flight.getSeatLayout(), flight.getAvailableSeats());
+    }
+
+    private Criteria[] seatConditions(List<String> seats, boolean available) {
+        return seats.stream()
+            .map(seat -> Criteria.where("seatLayout.seats").elemMatch(
+                Criteria.where("seatNumber").is(seat).and("isAvailable").is(available)))
+            .toArray(Criteria[]::new);
+    }
+}
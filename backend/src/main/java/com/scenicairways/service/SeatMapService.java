@@ -0,0 +1,227 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+import com.scenicairways.model.SeatMapTemplate;
+import com.scenicairways.repository.SeatMapTemplateRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned seat-map templates per aircraft type. A flight references one template and stores only
+ * its taken seats and per-seat price overrides; the full seat map is the template with that overlay applied.
+ */
+@Service
+public class SeatMapService {
+
+    private static final String[] SEAT_LETTERS = {"A", "B", "C", "D", "E", "F"};
+
+    @Autowired
+    private SeatMapTemplateRepository templateRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Templates are immutable once saved, so cached copies never go stale
+    private final Map<String, SeatMapTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, SeatMapTemplate> latestByAircraft = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void reload() {
+        if (templateRepository.count() == 0) {
+            createSampleTemplates();
+        }
+        for (SeatMapTemplate template : templateRepository.findAll()) {
+            cache(template);
+        }
+    }
+
+    public SeatMapTemplate getTemplate(String id) {
+        return templates.computeIfAbsent(id, key -> templateRepository.findById(key).orElse(null));
+    }
+
+    public List<SeatMapTemplate> getTemplates() {
+        return templateRepository.findAll(Sort.by("aircraft").and(Sort.by(Sort.Direction.DESC, "version")));
+    }
+
+    /**
+     * Saves the layout as the next version for its aircraft type. Flights created from now on
+     * reference it; existing flights keep the version they were created with.
+     */
+    public SeatMapTemplate createTemplate(SeatMapTemplate template) {
+        if (template.getAircraft() == null || template.getRows() == null || template.getRows().isEmpty()) {
+            throw new IllegalArgumentException("aircraft and rows are required");
+        }
+        Set<String> seatNumbers = new HashSet<>();
+        for (Flight.SeatRow row : template.getRows()) {
+            for (Flight.Seat seat : row.getSeats() != null ? row.getSeats() : List.<Flight.Seat>of()) {
+                if (seat.getSeatNumber() == null || !seatNumbers.add(seat.getSeatNumber())) {
+                    throw new IllegalArgumentException("Seat numbers must be present and unique");
+                }
+                seat.setAvailable(true);
+            }
+        }
+
+        int version = templateRepository.findFirstByAircraftOrderByVersionDesc(template.getAircraft())
+            .map(SeatMapTemplate::getVersion)
+            .orElse(0) + 1;
+        template.setId(null);
+        template.setVersion(version);
+        template.setTotalSeats(seatNumbers.size());
+        template.setCreatedAt(LocalDateTime.now());
+        try {
+            SeatMapTemplate saved = templateRepository.insert(template);
+            cache(saved);
+            return saved;
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Another version of the " + template.getAircraft() + " seat map was just created");
+        }
+    }
+
+    /**
+     * Points a new flight without its own layout at the latest template for its aircraft, or checks
+     * the template it names. Seat counts then come from the template.
+     */
+    public void attachTemplate(Flight flight) {
+        SeatMapTemplate template;
+        if (flight.getSeatMapTemplateId() != null) {
+            template = getTemplate(flight.getSeatMapTemplateId());
+            if (template == null) {
+                throw new IllegalArgumentException("Unknown seat map template " + flight.getSeatMapTemplateId());
+            }
+        } else if (flight.getSeatLayout() == null || flight.getSeatLayout().isEmpty()) {
+            template = flight.getAircraft() != null ? latestByAircraft.get(flight.getAircraft()) : null;
+            if (template == null) {
+                return;
+            }
+        } else {
+            return;
+        }
+
+        flight.setSeatMapTemplateId(template.getId());
+        flight.setSeatLayout(null);
+        flight.setTakenSeats(new ArrayList<>());
+        flight.setTotalSeats(template.getTotalSeats());
+        flight.setAvailableSeats(template.getTotalSeats());
+    }
+
+    /**
+     * Full seat map of a templated flight: the template's seats with the flight's availability and prices.
+     */
+    public List<Flight.SeatRow> resolveLayout(SeatMapTemplate template, Collection<String> takenSeats,
+                                              Map<String, Double> priceOverrides) {
+        Set<String> taken = takenSeats != null ? new HashSet<>(takenSeats) : Set.of();
+        List<Flight.SeatRow> rows = new ArrayList<>(template.getRows().size());
+        for (Flight.SeatRow templateRow : template.getRows()) {
+            Flight.SeatRow row = new Flight.SeatRow();
+            row.setRow(templateRow.getRow());
+            List<Flight.Seat> seats = new ArrayList<>();
+            for (Flight.Seat templateSeat : templateRow.getSeats() != null ? templateRow.getSeats() : List.<Flight.Seat>of()) {
+                Flight.Seat seat = new Flight.Seat();
+                seat.setId(templateSeat.getId());
+                seat.setSeatNumber(templateSeat.getSeatNumber());
+                seat.setType(templateSeat.getType());
+                seat.setScenic(templateSeat.isScenic());
+                seat.setAvailable(!taken.contains(templateSeat.getSeatNumber()));
+                Double override = priceOverrides != null ? priceOverrides.get(templateSeat.getSeatNumber()) : null;
+                seat.setPrice(override != null ? override : templateSeat.getPrice());
+                seats.add(seat);
+            }
+            row.setSeats(seats);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    public boolean updateSeatPrices(String flightId, Map<String, Double> prices) {
+        Query lookup = Query.query(Criteria.where("id").is(flightId));
+        lookup.fields().include("seatMapTemplateId");
+        Flight flight = mongoTemplate.findOne(lookup, Flight.class);
+        if (flight == null) {
+            return false;
+        }
+        if (flight.getSeatMapTemplateId() == null) {
+            throw new IllegalArgumentException("Flight " + flightId + " does not use a seat map template");
+        }
+
+        Set<String> seatNumbers = seatNumbers(getTemplate(flight.getSeatMapTemplateId()));
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            if (!seatNumbers.contains(price.getKey())) {
+                throw new IllegalArgumentException("Unknown seat " + price.getKey());
+            }
+            if (price.getValue() == null) {
+                update.unset("seatPriceOverrides." + price.getKey());
+            } else if (price.getValue() < 0) {
+                throw new IllegalArgumentException("Seat prices must not be negative");
+            } else {
+                update.set("seatPriceOverrides." + price.getKey(), price.getValue());
+            }
+        }
+        UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(flightId)), update, Flight.class);
+        return result.getMatchedCount() > 0;
+    }
+
+    private Set<String> seatNumbers(SeatMapTemplate template) {
+        Set<String> seatNumbers = new HashSet<>();
+        for (Flight.SeatRow row : template.getRows()) {
+            for (Flight.Seat seat : row.getSeats() != null ? row.getSeats() : List.<Flight.Seat>of()) {
+                seatNumbers.add(seat.getSeatNumber());
+            }
+        }
+        return seatNumbers;
+    }
+
+    private void cache(SeatMapTemplate template) {
+        templates.put(template.getId(), template);
+        latestByAircraft.merge(template.getAircraft(), template,
+            (current, candidate) -> candidate.getVersion() > current.getVersion() ? candidate : current);
+    }
+
+    private void createSampleTemplates() {
+        createTemplate(generateTemplate("Boeing 737", 25, 4));
+        createTemplate(generateTemplate("Airbus A320", 30, 3));
+        System.out.println("Sample seat map templates created successfully");
+    }
+
+    private SeatMapTemplate generateTemplate(String aircraft, int rowCount, int premiumRows) {
+        List<Flight.SeatRow> rows = new ArrayList<>();
+        for (int rowNumber = 1; rowNumber <= rowCount; rowNumber++) {
+            Flight.SeatRow row = new Flight.SeatRow();
+            row.setRow(String.valueOf(rowNumber));
+            List<Flight.Seat> seats = new ArrayList<>();
+            for (String letter : SEAT_LETTERS) {
+                Flight.Seat seat = new Flight.Seat();
+                seat.setId(rowNumber + letter);
+                seat.setSeatNumber(rowNumber + letter);
+                seat.setType(rowNumber <= premiumRows ? Flight.Seat.SeatType.PREMIUM : Flight.Seat.SeatType.ECONOMY);
+                // Window seats
+                seat.setScenic(letter.equals("A") || letter.equals("F"));
+                seats.add(seat);
+            }
+            row.setSeats(seats);
+            rows.add(row);
+        }
+
+        SeatMapTemplate template = new SeatMapTemplate();
+        template.setAircraft(aircraft);
+        template.setRows(rows);
+        return template;
+    }
+}
@@ -0,0 +1,204 @@
+package com.scenicairways.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes seat-state deltas to clients watching a flight over Server-Sent Events. Connections are
+ * async servlet requests, so an idle watcher holds no thread. Each delta is serialized once, numbered
+ * per flight, and queued to every watcher of the flight in that order; a watcher's queue is drained by
+ * one fan-out task at a time, so a client always sees a flight's deltas in the order they happened. A
+ * client that falls {@code max-pending} events behind is disconnected and resyncs from a new snapshot.
+ * The snapshot carries the seat numbers that are taken and, of those, the ones only held.
+ * <p>
+ * Deltas come only from claims and releases made by this node's {@link SeatInventoryService}; they
+ * are not fanned out across nodes. With several nodes, a watcher misses seats sold through the
+ * others until it reconnects and takes a new snapshot, which is read fresh from Mongo.
+ */
+@Service
+public class SeatStreamService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.seat-stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${app.seat-stream.max-pending:256}")
+    private int maxPending;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService fanOut = Executors.newFixedThreadPool(4);
+
+    private static class Channel {
+        final Set<Watcher> watchers = ConcurrentHashMap.newKeySet();
+        long sequence;
+    }
+
+    private static class Watcher {
+        final SseEmitter emitter;
+        final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Watcher(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    public SseEmitter subscribe(String flightId, int availableSeats, List<String> takenSeats, List<String> heldSeats) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Watcher watcher = new Watcher(emitter);
+
+        Runnable remove = () -> removeWatcher(flightId, watcher);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("availableSeats", availableSeats);
+        snapshot.put("takenSeats", takenSeats);
+        snapshot.put("heldSeats", heldSeats);
+        Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+            .name("snapshot")
+            .data(toJson(snapshot), MediaType.APPLICATION_JSON)
+            .build();
+
+        // Queued before the watcher is registered, so the snapshot always goes out ahead of any delta
+        enqueue(flightId, watcher, event);
+        channels.compute(flightId, (key, channel) -> {
+            Channel updated = channel != null ? channel : new Channel();
+            updated.watchers.add(watcher);
+            return updated;
+        });
+        return emitter;
+    }
+
+    public void publish(String flightId, List<String> seats, boolean available, int availableSeats) {
+        Channel channel = channels.get(flightId);
+        if (channel == null || channel.watchers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("seats", seats);
+        delta.put("available", available);
+        delta.put("availableSeats", availableSeats);
+        String data = toJson(delta);
+
+        // Numbering and queueing under the channel lock gives every watcher the same order
+        synchronized (channel) {
+            Set<ResponseBodyEmitter.DataWithMediaType> event = SseEmitter.event()
+                .id(Long.toString(++channel.sequence))
+                .name("seats")
+                .data(data, MediaType.APPLICATION_JSON)
+                .build();
+            for (Watcher watcher : channel.watchers) {
+                enqueue(flightId, watcher, event);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and weeds out clients that went away
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Map.Entry<String, Channel> entry : channels.entrySet()) {
+            synchronized (entry.getValue()) {
+                for (Watcher watcher : entry.getValue().watchers) {
+                    enqueue(entry.getKey(), watcher, ping);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        channels.values().forEach(channel -> channel.watchers.forEach(watcher -> watcher.emitter.complete()));
+    }
+
+    private void enqueue(String flightId, Watcher watcher, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (watcher.closed) {
+            return;
+        }
+        if (watcher.pendingCount.incrementAndGet() > maxPending) {
+            // Completed by its drain task, which may still be blocked writing to this client
+            System.err.println("Seat stream client of flight " + flightId + " fell " + maxPending + " events behind, disconnecting");
+            watcher.closed = true;
+            watcher.pending.clear();
+            removeWatcher(flightId, watcher);
+            return;
+        }
+        watcher.pending.add(event);
+        if (watcher.draining.compareAndSet(false, true)) {
+            try {
+                fanOut.execute(() -> drain(flightId, watcher));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                watcher.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(String flightId, Watcher watcher) {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while (!watcher.closed && (event = watcher.pending.poll()) != null) {
+                watcher.pendingCount.decrementAndGet();
+                try {
+                    watcher.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    watcher.closed = true;
+                    removeWatcher(flightId, watcher);
+                    watcher.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            if (watcher.closed) {
+                watcher.emitter.complete();
+                return;
+            }
+            watcher.draining.set(false);
+            // An event queued after the last poll but before the flag cleared still needs a drain
+        } while (!watcher.pending.isEmpty() && watcher.draining.compareAndSet(false, true));
+    }
+
+    private void removeWatcher(String flightId, Watcher watcher) {
+        channels.computeIfPresent(flightId, (key, channel) -> {
+            channel.watchers.remove(watcher);
+            return channel.watchers.isEmpty() ? null : channel;
+        });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat event", e);
+        }
+    }
+}
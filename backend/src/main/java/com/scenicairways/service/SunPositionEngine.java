@@ -0,0 +1,334 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.SunAnalysis;
+import com.scenicairways.model.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Works out where the sun is relative to the aircraft along its route. The path is sampled at even
+ * distances, each sample gets its scheduled time, and the solar azimuth/elevation (NOAA low-precision
+ * formulas) is compared with the aircraft heading. Sun low on one side means that side sees the
+ * sunrise or sunset; in full daylight the side away from the sun has the clearer view.
+ */
+@Service
+public class SunPositionEngine {
+
+    private static final int SAMPLES = 48;
+    private static final int TIME_BUCKET_MINUTES = 10;
+    private static final int BATCH_SIZE = 1000;
+    // Sun between slightly below the horizon and 8 degrees up: sunrise/sunset light
+    private static final double GOLDEN_LOW = -4.0;
+    private static final double GOLDEN_HIGH = 8.0;
+    // Sun within this many degrees of the nose or tail lights neither side
+    private static final double AHEAD_OR_BEHIND = 20.0;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.sun.zone-id:Asia/Kolkata}")
+    private String zoneId;
+
+    @Value("${app.sun.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private ZoneId zone;
+    private ResultCache<SunKey, SunAnalysis> cache;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private record SunKey(String route, LocalDate date, int timeBucket, long durationMinutes) {
+    }
+
+    @PostConstruct
+    public void init() {
+        zone = ZoneId.of(zoneId);
+        cache = new ResultCache<>(cacheMaxEntries, Duration.ofDays(1).toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Sun analysis for the flight's route and schedule, or null when the flight has no route path or
+     * times. A null sun position means the whole flight is in darkness.
+     */
+    public SunAnalysis analyze(Flight flight) {
+        String route = routeKey(flight);
+        if (route == null || flight.getDate() == null || flight.getDepartureTime() == null || flight.getArrivalTime() == null) {
+            return null;
+        }
+        long durationMinutes = Duration.between(flight.getDepartureTime(), flight.getArrivalTime()).toMinutes();
+        if (durationMinutes <= 0) {
+            // Overnight flight
+            durationMinutes += Duration.ofDays(1).toMinutes();
+        }
+        int bucket = flight.getDepartureTime().toSecondOfDay() / 60 / TIME_BUCKET_MINUTES;
+        SunKey key = new SunKey(route, flight.getDate(), bucket, durationMinutes);
+
+        SunAnalysis cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = cache.sequence();
+        LocalDateTime departure = flight.getDate().atTime(LocalTime.ofSecondOfDay((long) bucket * TIME_BUCKET_MINUTES * 60));
+        SunAnalysis analysis = compute(RouteGeometry.decode(route), departure, durationMinutes);
+        cache.put(key, analysis, loadedAt);
+        return analysis;
+    }
+
+    /** Overwrites the flight's hand-entered sun position and scenic side when they can be computed. */
+    public void apply(Flight flight) {
+        SunAnalysis analysis = analyze(flight);
+        if (analysis != null && analysis.getSunPosition() != null) {
+            flight.setSunPosition(analysis.getSunPosition());
+            flight.setScenicSide(analysis.getScenicSide());
+        }
+    }
+
+    /**
+     * Recomputes every flight dated in the range, a batch at a time on the fork-join pool, and writes
+     * back the ones whose sun position or scenic side changed. Returns how many flights were read and updated.
+     */
+    public Map<String, Integer> recompute(LocalDate fromDate, LocalDate toDate) {
+        Query query = Query.query(Criteria.where("date").gte(fromDate).lte(toDate));
+        query.fields().include("route").include("routePolylines").include("date")
+            .include("departureTime").include("arrivalTime").include("sunPosition").include("scenicSide");
+
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger updated = new AtomicInteger();
+        try (Stream<Flight> stream = mongoTemplate.stream(query, Flight.class)) {
+            Iterator<Flight> flights = stream.iterator();
+            List<Flight> batch = new ArrayList<>(BATCH_SIZE);
+            while (flights.hasNext()) {
+                batch.add(flights.next());
+                if (batch.size() == BATCH_SIZE || !flights.hasNext()) {
+                    read.addAndGet(batch.size());
+                    updated.addAndGet(recomputeBatch(batch));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        }
+        return Map.of("flights", read.get(), "updated", updated.get());
+    }
+
+    private int recomputeBatch(List<Flight> batch) {
+        List<Flight> changed;
+        try {
+            changed = pool.submit(() -> batch.parallelStream()
+                .filter(this::refresh)
+                .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sun position recompute interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sun position recompute failed", e.getCause());
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Flight.class);
+        for (Flight flight : changed) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(flight.getId())), new Update()
+                .set("sunPosition", flight.getSunPosition())
+                .set("scenicSide", flight.getScenicSide())
+                .set("updatedAt", LocalDateTime.now()));
+        }
+        bulk.execute();
+        return changed.size();
+    }
+
+    // Applies a fresh analysis to the flight and reports whether anything changed
+    private boolean refresh(Flight flight) {
+        SunAnalysis analysis = analyze(flight);
+        if (analysis == null || analysis.getSunPosition() == null
+                || (analysis.getSunPosition() == flight.getSunPosition() && analysis.getScenicSide() == flight.getScenicSide())) {
+            return false;
+        }
+        flight.setSunPosition(analysis.getSunPosition());
+        flight.setScenicSide(analysis.getScenicSide());
+        return true;
+    }
+
+    private String routeKey(Flight flight) {
+        Map<String, String> polylines = flight.getRoutePolylines();
+        if (polylines != null && polylines.get(RouteGeometry.FULL) != null) {
+            return polylines.get(RouteGeometry.FULL);
+        }
+        List<Flight.RoutePoint> route = flight.getRoute();
+        if (route == null || route.size() < 2) {
+            return null;
+        }
+        return RouteGeometry.encodeLevels(route).get(RouteGeometry.FULL);
+    }
+
+    private SunAnalysis compute(List<double[]> path, LocalDateTime departure, long durationMinutes) {
+        if (path.size() < 2) {
+            return null;
+        }
+        double[] cumulative = new double[path.size()];
+        for (int i = 1; i < path.size(); i++) {
+            cumulative[i] = cumulative[i - 1] + distance(path.get(i - 1), path.get(i));
+        }
+        double total = cumulative[path.size() - 1];
+        if (total == 0) {
+            return null;
+        }
+
+        int goldenLeft = 0;
+        int goldenRight = 0;
+        int goldenMorning = 0;
+        int goldenEvening = 0;
+        int daylightLeft = 0;
+        int daylightRight = 0;
+        int daylight = 0;
+        int leftSamples = 0;
+        int rightSamples = 0;
+        Integer firstGolden = null;
+        Integer lastGolden = null;
+
+        int segment = 0;
+        for (int s = 0; s < SAMPLES; s++) {
+            double fraction = (s + 0.5) / SAMPLES;
+            double target = fraction * total;
+            while (segment < path.size() - 2 && cumulative[segment + 1] < target) {
+                segment++;
+            }
+            double[] from = path.get(segment);
+            double[] to = path.get(segment + 1);
+            double length = cumulative[segment + 1] - cumulative[segment];
+            double t = length == 0 ? 0 : (target - cumulative[segment]) / length;
+            double lat = from[0] + t * (to[0] - from[0]);
+            double lng = from[1] + t * (to[1] - from[1]);
+
+            int offsetMinutes = (int) Math.round(fraction * durationMinutes);
+            double[] sun = solarPosition(lat, lng, departure.plusMinutes(offsetMinutes).atZone(zone).toInstant().toEpochMilli());
+            double relative = normalize(sun[0] - bearing(from, to));
+            boolean left = relative < -AHEAD_OR_BEHIND && relative > -180 + AHEAD_OR_BEHIND;
+            boolean right = relative > AHEAD_OR_BEHIND && relative < 180 - AHEAD_OR_BEHIND;
+            if (sun[1] < GOLDEN_LOW) {
+                continue;
+            }
+            if (left) {
+                leftSamples++;
+            } else if (right) {
+                rightSamples++;
+            }
+
+            if (sun[1] <= GOLDEN_HIGH) {
+                goldenLeft += left ? 1 : 0;
+                goldenRight += right ? 1 : 0;
+                if (sun[0] < 180) {
+                    goldenMorning++;
+                } else {
+                    goldenEvening++;
+                }
+                firstGolden = firstGolden == null ? offsetMinutes : firstGolden;
+                lastGolden = offsetMinutes;
+            } else {
+                daylight++;
+                daylightLeft += left ? 1 : 0;
+                daylightRight += right ? 1 : 0;
+            }
+        }
+
+        double minutesPerSample = (double) durationMinutes / SAMPLES;
+        int leftMinutes = (int) Math.round(leftSamples * minutesPerSample);
+        int rightMinutes = (int) Math.round(rightSamples * minutesPerSample);
+        LocalTime departureTime = departure.toLocalTime();
+
+        if (firstGolden != null) {
+            Flight.SunPosition position = goldenMorning >= goldenEvening ? Flight.SunPosition.SUNRISE : Flight.SunPosition.SUNSET;
+            return new SunAnalysis(position, majoritySide(goldenLeft, goldenRight),
+                departureTime.plusMinutes(firstGolden), departureTime.plusMinutes(lastGolden), leftMinutes, rightMinutes);
+        }
+        if (daylight > 0) {
+            // The side facing away from the sun has no glare
+            return new SunAnalysis(Flight.SunPosition.DAYLIGHT, majoritySide(daylightRight, daylightLeft),
+                null, null, leftMinutes, rightMinutes);
+        }
+        return new SunAnalysis(null, Flight.ScenicSide.BOTH, null, null, 0, 0);
+    }
+
+    private Flight.ScenicSide majoritySide(int left, int right) {
+        if (left > right * 2) {
+            return Flight.ScenicSide.LEFT;
+        } else if (right > left * 2) {
+            return Flight.ScenicSide.RIGHT;
+        }
+        return Flight.ScenicSide.BOTH;
+    }
+
+    // {azimuth clockwise from north, elevation}, both in degrees
+    static double[] solarPosition(double lat, double lng, long epochMillis) {
+        double n = epochMillis / 86400000.0 + 2440587.5 - 2451545.0;
+        double meanLongitude = mod(280.460 + 0.9856474 * n, 360);
+        double meanAnomaly = Math.toRadians(mod(357.528 + 0.9856003 * n, 360));
+        double eclipticLongitude = Math.toRadians(meanLongitude + 1.915 * Math.sin(meanAnomaly) + 0.020 * Math.sin(2 * meanAnomaly));
+        double obliquity = Math.toRadians(23.439 - 0.0000004 * n);
+
+        double rightAscension = Math.atan2(Math.cos(obliquity) * Math.sin(eclipticLongitude), Math.cos(eclipticLongitude));
+        double declination = Math.asin(Math.sin(obliquity) * Math.sin(eclipticLongitude));
+        double siderealDegrees = mod(280.46061837 + 360.98564736629 * n + lng, 360);
+        double hourAngle = Math.toRadians(siderealDegrees) - rightAscension;
+
+        double latitude = Math.toRadians(lat);
+        double elevation = Math.asin(Math.sin(latitude) * Math.sin(declination)
+            + Math.cos(latitude) * Math.cos(declination) * Math.cos(hourAngle));
+        double azimuth = Math.atan2(-Math.sin(hourAngle) * Math.cos(declination),
+            Math.sin(declination) * Math.cos(latitude) - Math.cos(declination) * Math.sin(latitude) * Math.cos(hourAngle));
+        return new double[] { mod(Math.toDegrees(azimuth), 360), Math.toDegrees(elevation) };
+    }
+
+    private static double bearing(double[] from, double[] to) {
+        double lat1 = Math.toRadians(from[0]);
+        double lat2 = Math.toRadians(to[0]);
+        double deltaLng = Math.toRadians(to[1] - from[1]);
+        double y = Math.sin(deltaLng) * Math.cos(lat2);
+        double x = Math.cos(lat1) * Math.sin(lat2) - Math.sin(lat1) * Math.cos(lat2) * Math.cos(deltaLng);
+        return mod(Math.toDegrees(Math.atan2(y, x)), 360);
+    }
+
+    // Equirectangular approximation; only used to space samples along the path
+    private static double distance(double[] from, double[] to) {
+        double x = Math.toRadians(to[1] - from[1]) * Math.cos(Math.toRadians((from[0] + to[0]) / 2));
+        double y = Math.toRadians(to[0] - from[0]);
+        return Math.sqrt(x * x + y * y);
+    }
+
+    // Degrees into (-180, 180]
+    private static double normalize(double degrees) {
+        double value = mod(degrees, 360);
+        return value > 180 ? value - 360 : value;
+    }
+
+    private static double mod(double value, double modulus) {
+        double result = value % modulus;
+        return result < 0 ? result + modulus : result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.scenicairways.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Scheduling and cancelling are O(1); each timeout is moved down at most
+ * once per level before it fires, so expiry never scans the pending set.
+ */
+public class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Timeout<T>[][] wheels;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheels = (Timeout<T>[][]) new Timeout<?>[LEVELS][WHEEL_SIZE];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(this, payload, deadlineTick);
+        insert(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns the payloads whose deadline has passed.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            int index = (int) (currentTick & MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+
+            Timeout<T> timeout = wheels[0][index];
+            wheels[0][index] = null;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.level = -1;
+                if (timeout.deadlineTick <= currentTick) {
+                    expired.add(timeout.payload);
+                } else {
+                    // Deadline was clamped to the wheel's span when scheduled
+                    insert(timeout);
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >> (BITS * level)) & MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+
+        Timeout<T> timeout = wheels[level][index];
+        wheels[level][index] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            insert(timeout);
+            timeout = next;
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        long tick = delta < MAX_SPAN ? timeout.deadlineTick : currentTick + MAX_SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((tick >> (BITS * level)) & MASK);
+
+        timeout.level = level;
+        timeout.index = index;
+        timeout.prev = null;
+        timeout.next = wheels[level][index];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        wheels[level][index] = timeout;
+    }
+
+    private synchronized boolean unlink(Timeout<T> timeout) {
+        if (timeout.level < 0) {
+            return false;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheels[timeout.level][timeout.index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+        return true;
+    }
+
+    public static class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private int level = -1;
+        private int index;
+
+        private Timeout(TimingWheel<T> wheel, T payload, long deadlineTick) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public boolean cancel() {
+            return wheel.unlink(this);
+        }
+
+        public T getPayload() { return payload; }
+    }
+}
@@ -0,0 +1,97 @@
+package com.scenicairways.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timed check of id minting under contention: ids from several threads must be unique and increase
+ * within each thread, at a rate well above what booking writes could use.
+ */
+class BookingIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+    private static final long MIN_IDS_PER_SECOND = 500_000;
+
+    private BookingIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new BookingIdGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7);
+        generator.init();
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndFast() throws Exception {
+        // Warm up the CAS loop and encoder before timing
+        for (int i = 0; i < 200_000; i++) {
+            BookingIdGenerator.encode("SA", generator.next());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids[i] = generator.next();
+                    }
+                    return ids;
+                }));
+            }
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1], "ids went backwards within a thread");
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+            }
+            long perSecond = all.length * 1_000_000_000L / elapsedNanos;
+            System.out.println("Minted " + all.length + " booking ids on " + THREADS + " threads in "
+                + elapsedNanos / 1_000_000 + " ms (" + perSecond + " ids/s)");
+            assertTrue(perSecond >= MIN_IDS_PER_SECOND, "only " + perSecond + " ids/s");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void encodedIdsSortInCreationOrder() {
+        String first = generator.nextId();
+        String second = generator.nextId();
+
+        assertEquals(15, first.length());
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    void expiredLeaseStopsMinting() {
+        ReflectionTestUtils.setField(generator, "mintUntil", System.currentTimeMillis() - 1);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+}
@@ -0,0 +1,111 @@
+package com.scenicairways.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.scenicairways.model.Booking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingOutboxDispatcherTest {
+
+    private MongoTemplate mongoTemplate;
+    private EmailService emailService;
+    private BookingOutboxDispatcher dispatcher;
+    private ThreadPoolExecutor senders;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        emailService = mock(EmailService.class);
+        dispatcher = new BookingOutboxDispatcher();
+        senders = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        ReflectionTestUtils.setField(dispatcher, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(dispatcher, "emailService", emailService);
+        ReflectionTestUtils.setField(dispatcher, "senders", senders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senders.shutdownNow();
+    }
+
+    @Test
+    void fullBatchThatDeliversNothingEndsThePass() {
+        // Every event is leased by another node between our read and our lease
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(bookings(100));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Booking.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> dispatcher.dispatch());
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Booking.class));
+    }
+
+    @Test
+    void fullBatchThatDeliveredPollsAgain() {
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(bookings(100), bookings(3));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Booking.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        dispatcher.dispatch();
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Booking.class));
+        verify(emailService, times(103)).sendBookingConfirmation(any(Booking.class));
+    }
+
+    @Test
+    void eventThatKeepsFailingIsParkedOutOfTheOutbox() {
+        Booking booking = bookings(1).get(0);
+        booking.getOutbox().get(0).setAttempts(7);
+        when(mongoTemplate.find(any(Query.class), eq(Booking.class))).thenReturn(List.of(booking));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Booking.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        doThrow(new IllegalStateException("smtp down"))
+            .when(emailService).sendBookingConfirmation(any(Booking.class));
+
+        dispatcher.dispatch();
+
+        // Lease, then the move to parkedOutbox
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Booking.class));
+        assertEquals(8, booking.getOutbox().get(0).getAttempts());
+        assertNull(booking.getOutbox().get(0).getNextAttemptAt());
+    }
+
+    private static List<Booking> bookings(int count) {
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setId("SA" + i);
+            Booking.OutboxEvent event = new Booking.OutboxEvent(Booking.OutboxEvent.EventType.BOOKING_CONFIRMED);
+            event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            List<Booking.OutboxEvent> outbox = new ArrayList<>();
+            outbox.add(event);
+            booking.setOutbox(outbox);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+}
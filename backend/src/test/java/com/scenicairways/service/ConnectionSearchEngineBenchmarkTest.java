@@ -0,0 +1,110 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.Itinerary;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timed search over synthetic networks of 10k and 100k flights. The expansion cap should keep a search
+ * bounded as the network grows. Timing depends on the machine, so it only runs when asked for:
+ * {@code mvn test -Dtest=ConnectionSearchEngineBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ConnectionSearchEngineBenchmarkTest {
+
+    private static final int CITIES = 100;
+    private static final int DAYS = 7;
+    private static final int WARMUP_SEARCHES = 200;
+    private static final int TIMED_SEARCHES = 500;
+    private static final long P50_BUDGET_MICROS = 50_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void searchStaysWithinBudget(int flightCount) {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        ConnectionSearchEngine engine = new ConnectionSearchEngine();
+
+        long buildStart = System.nanoTime();
+        engine.rebuild(network(flightCount, start, random));
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < WARMUP_SEARCHES; i++) {
+            search(engine, start, random);
+        }
+
+        long[] micros = new long[TIMED_SEARCHES];
+        int found = 0;
+        for (int i = 0; i < TIMED_SEARCHES; i++) {
+            long searchStart = System.nanoTime();
+            List<Itinerary> itineraries = search(engine, start, random);
+            micros[i] = (System.nanoTime() - searchStart) / 1_000;
+            if (!itineraries.isEmpty()) {
+                found++;
+                assertArrivalOrder(itineraries);
+            }
+        }
+        Arrays.sort(micros);
+        long p50 = micros[TIMED_SEARCHES / 2];
+        long p99 = micros[TIMED_SEARCHES * 99 / 100];
+
+        System.out.println("Connection search over " + flightCount + " flights: build " + buildMillis + " ms, p50 "
+            + p50 + " us, p99 " + p99 + " us, " + found + "/" + TIMED_SEARCHES + " searches found itineraries");
+        assertFalse(found == 0, "no search found an itinerary");
+        assertTrue(p50 < P50_BUDGET_MICROS, "p50 search took " + p50 + " us");
+    }
+
+    private List<Itinerary> search(ConnectionSearchEngine engine, LocalDate start, Random random) {
+        String from = city(random.nextInt(CITIES));
+        String to = city(random.nextInt(CITIES));
+        LocalDate date = start.plusDays(random.nextInt(DAYS));
+        return engine.search(from, to, date, 3, Duration.ofMinutes(45), 5);
+    }
+
+    private static List<FlightSummary> network(int flightCount, LocalDate start, Random random) {
+        List<FlightSummary> flights = new ArrayList<>(flightCount);
+        for (int i = 0; i < flightCount; i++) {
+            int from = random.nextInt(CITIES);
+            int to = (from + 1 + random.nextInt(CITIES - 1)) % CITIES;
+            LocalTime departure = LocalTime.of(random.nextInt(24), random.nextInt(12) * 5);
+
+            FlightSummary flight = new FlightSummary();
+            flight.setId("F" + i);
+            flight.setFlightNumber("SA" + i);
+            flight.setDeparture(city(from));
+            flight.setArrival(city(to));
+            flight.setDate(start.plusDays(random.nextInt(DAYS)));
+            flight.setDepartureTime(departure);
+            flight.setArrivalTime(departure.plusMinutes(60 + random.nextInt(300)));
+            flight.setPrice(2000 + random.nextInt(8000));
+            flight.setTotalSeats(180);
+            flight.setAvailableSeats(random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(180));
+            flights.add(flight);
+        }
+        return flights;
+    }
+
+    private static String city(int index) {
+        return "City" + index;
+    }
+
+    private static void assertArrivalOrder(List<Itinerary> itineraries) {
+        for (int i = 1; i < itineraries.size(); i++) {
+            assertFalse(itineraries.get(i).getArrival().isBefore(itineraries.get(i - 1).getArrival()),
+                "itineraries out of arrival order");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import com.scenicairways.dto.Itinerary;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionSearchEngineTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 1);
+    private static final Duration MIN_CONNECTION = Duration.ofMinutes(30);
+
+    private final ConnectionSearchEngine engine = new ConnectionSearchEngine();
+    private final List<FlightSummary> flights = new ArrayList<>();
+
+    @Test
+    void deadEndAtTheLegLimitDoesNotHideAValidConnection() {
+        flight("AX", "A", "X", "08:00", "09:00");
+        flight("XC", "X", "C", "09:45", "10:00");
+        flight("AC", "A", "C", "08:00", "11:00");
+        flight("CB", "C", "B", "12:00", "13:00");
+        engine.rebuild(flights);
+
+        List<Itinerary> itineraries = engine.search("A", "B", DATE, 2, MIN_CONNECTION, 1);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of("AC", "CB"), ids(itineraries.get(0)));
+    }
+
+    @Test
+    void labelThatCannotConnectDoesNotUseUpTheCity() {
+        // AC1 reaches C first but more than the 12h maximum layover before the only onward flight
+        flight("AC1", "A", "C", "06:00", "07:00");
+        flight("AC2", "A", "C", "09:00", "10:00");
+        flight("CB", "C", "B", "20:00", "21:00");
+        engine.rebuild(flights);
+
+        List<Itinerary> itineraries = engine.search("A", "B", DATE, 3, MIN_CONNECTION, 1);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of("AC2", "CB"), ids(itineraries.get(0)));
+    }
+
+    @Test
+    void resultsComeInArrivalOrderUpToTheLimit() {
+        flight("AB", "A", "B", "08:00", "14:00");
+        flight("AC", "A", "C", "08:00", "09:00");
+        flight("CB", "C", "B", "10:00", "11:00");
+        flight("AD", "A", "D", "07:00", "08:00");
+        flight("DB", "D", "B", "09:00", "12:00");
+        engine.rebuild(flights);
+
+        List<Itinerary> itineraries = engine.search("A", "B", DATE, 2, MIN_CONNECTION, 2);
+
+        assertEquals(2, itineraries.size());
+        assertEquals(List.of("AC", "CB"), ids(itineraries.get(0)));
+        assertEquals(List.of("AD", "DB"), ids(itineraries.get(1)));
+    }
+
+    @Test
+    void connectionShorterThanTheMinimumIsNotOffered() {
+        flight("AC", "A", "C", "08:00", "09:00");
+        flight("CB", "C", "B", "09:20", "10:00");
+        engine.rebuild(flights);
+
+        assertTrue(engine.search("A", "B", DATE, 2, MIN_CONNECTION, 5).isEmpty());
+    }
+
+    @Test
+    void legLimitIsRespected() {
+        flight("AC", "A", "C", "08:00", "09:00");
+        flight("CD", "C", "D", "10:00", "11:00");
+        flight("DB", "D", "B", "12:00", "13:00");
+        engine.rebuild(flights);
+
+        assertTrue(engine.search("A", "B", DATE, 2, MIN_CONNECTION, 5).isEmpty());
+        assertEquals(List.of("AC", "CD", "DB"), ids(engine.search("A", "B", DATE, 3, MIN_CONNECTION, 5).get(0)));
+    }
+
+    @Test
+    void soldOutLegsAndLoopsAreSkipped() {
+        flight("AC", "A", "C", "08:00", "09:00").setAvailableSeats(0);
+        flight("AD", "A", "D", "08:00", "09:00");
+        flight("DA", "D", "A", "10:00", "11:00");
+        flight("DB", "D", "B", "12:00", "13:00");
+        flight("CB", "C", "B", "10:00", "11:00");
+        engine.rebuild(flights);
+
+        List<Itinerary> itineraries = engine.search("A", "B", DATE, 4, MIN_CONNECTION, 5);
+
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of("AD", "DB"), ids(itineraries.get(0)));
+    }
+
+    @Test
+    void removedFlightIsNoLongerOffered() {
+        flight("AB", "A", "B", "08:00", "09:00");
+        engine.rebuild(flights);
+        engine.remove("AB");
+
+        assertTrue(engine.search("A", "B", DATE, 1, MIN_CONNECTION, 5).isEmpty());
+    }
+
+    private FlightSummary flight(String id, String from, String to, String departure, String arrival) {
+        FlightSummary flight = new FlightSummary();
+        flight.setId(id);
+        flight.setFlightNumber(id);
+        flight.setDeparture(from);
+        flight.setArrival(to);
+        flight.setDate(DATE);
+        flight.setDepartureTime(LocalTime.parse(departure));
+        flight.setArrivalTime(LocalTime.parse(arrival));
+        flight.setPrice(1000);
+        flight.setTotalSeats(100);
+        flight.setAvailableSeats(100);
+        flights.add(flight);
+        return flight;
+    }
+
+    private static List<String> ids(Itinerary itinerary) {
+        return itinerary.getLegs().stream().map(FlightSummary::getId).toList();
+    }
+}
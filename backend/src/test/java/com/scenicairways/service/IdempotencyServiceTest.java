@@ -0,0 +1,124 @@
+package com.scenicairways.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import com.scenicairways.model.IdempotencyRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String REQUEST = "book 12A";
+
+    private MongoTemplate mongoTemplate;
+    private IdempotencyService service;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 60L);
+    }
+
+    @Test
+    void retryTakesOverAnExpiredClaim() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("taken"));
+        when(mongoTemplate.findById("user-1:key-1", IdempotencyRecord.class))
+            .thenReturn(processing(LocalDateTime.now().minusMinutes(5)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        IdempotencyService.Outcome<String> outcome = execute();
+
+        assertFalse(outcome.replayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void retryWaitsOnALiveClaim() {
+        IdempotencyRecord completed = processing(LocalDateTime.now());
+        completed.setCompleted(true);
+        completed.setResultId("booking-1");
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("taken"));
+        when(mongoTemplate.findById("user-1:key-1", IdempotencyRecord.class))
+            .thenReturn(processing(LocalDateTime.now()), completed);
+
+        IdempotencyService.Outcome<String> outcome = execute();
+
+        assertTrue(outcome.replayed());
+        assertEquals("booking-1", outcome.result());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void failedCompletionWriteIsKeptAndWrittenLater() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+            .thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+
+        assertFalse(execute().replayed());
+        IdempotencyService.Outcome<String> retry = execute();
+        assertTrue(retry.replayed());
+        assertEquals("booking-1", retry.result());
+        assertEquals(1, runs.get());
+
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        service.recordUnrecorded();
+        service.recordUnrecorded();
+        // Three failed attempts inline, then one successful write in the background
+        verify(mongoTemplate, times(4)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class));
+    }
+
+    private IdempotencyService.Outcome<String> execute() {
+        return service.execute("user-1", "key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            return "booking-1";
+        }, result -> result, Optional::of);
+    }
+
+    private static IdempotencyRecord processing(LocalDateTime claimedAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId("user-1:key-1");
+        record.setRequestHash(hash());
+        record.setClaimToken("other-node");
+        record.setClaimedAt(claimedAt);
+        return record;
+    }
+
+    // Same fingerprint the service computes for REQUEST
+    private static String hash() {
+        try {
+            byte[] json = new ObjectMapper().writeValueAsBytes(REQUEST);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
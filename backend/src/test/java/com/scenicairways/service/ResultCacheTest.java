@@ -0,0 +1,62 @@
+package com.scenicairways.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultCacheTest {
+
+    private final ResultCache<String, String> cache = new ResultCache<>(100, 60_000);
+
+    @Test
+    void tagInvalidationDropsOnlyEntriesHoldingTheTag() {
+        cache.put("goa", "goa flights", List.of("F1", "F2"), cache.sequence());
+        cache.put("leh", "leh flights", List.of("F3"), cache.sequence());
+
+        assertEquals(1, cache.invalidateTag("F2"));
+        assertNull(cache.get("goa"));
+        assertEquals("leh flights", cache.get("leh"));
+    }
+
+    @Test
+    void loadRacingAnUnrelatedInvalidationIsStored() {
+        long loadedAt = cache.sequence();
+        cache.invalidateTag("F9");
+        cache.put("goa", "goa flights", List.of("F1"), loadedAt);
+
+        assertEquals("goa flights", cache.get("goa"));
+    }
+
+    @Test
+    void loadRacingAnInvalidationOfItsFlightIsNotStored() {
+        long loadedAt = cache.sequence();
+        cache.invalidateTag("F1");
+        cache.put("goa", "goa flights", List.of("F1"), loadedAt);
+
+        assertNull(cache.get("goa"));
+    }
+
+    @Test
+    void loadRacingAPredicateInvalidationIsNotStored() {
+        long loadedAt = cache.sequence();
+        cache.invalidateIf((key, value) -> false);
+        cache.put("goa", "goa flights", List.of("F1"), loadedAt);
+        assertNull(cache.get("goa"));
+
+        cache.put("goa", "goa flights", List.of("F1"), cache.sequence());
+        assertEquals("goa flights", cache.get("goa"));
+    }
+
+    @Test
+    void evictedEntriesLeaveTheTagIndex() {
+        ResultCache<String, String> small = new ResultCache<>(1, 60_000);
+        small.put("goa", "goa flights", List.of("F1"), small.sequence());
+        small.put("leh", "leh flights", List.of("F1"), small.sequence());
+
+        assertNull(small.get("goa"));
+        assertEquals(1, small.invalidateTag("F1"));
+    }
+}
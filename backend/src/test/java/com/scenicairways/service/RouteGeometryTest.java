@@ -0,0 +1,80 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.Flight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RouteGeometryTest {
+
+    @Test
+    void compactKeepsThePathAndStripsUnnamedWaypoints() {
+        Flight flight = flight(List.of(
+            point(15.38, 73.83, "Goa", Flight.RoutePoint.RoutePointType.DEPARTURE),
+            point(16.10, 74.20, null, Flight.RoutePoint.RoutePointType.WAYPOINT),
+            point(17.00, 74.90, "Kolhapur", Flight.RoutePoint.RoutePointType.WAYPOINT),
+            point(18.20, 73.40, null, Flight.RoutePoint.RoutePointType.WAYPOINT),
+            point(19.09, 72.87, "Mumbai", Flight.RoutePoint.RoutePointType.ARRIVAL)));
+
+        RouteGeometry.compact(flight);
+
+        assertEquals(3, flight.getRoute().size());
+        assertEquals(5, RouteGeometry.decode(flight.getRoutePolylines().get(RouteGeometry.FULL)).size());
+    }
+
+    @Test
+    void unchangedMarkersKeepTheStoredPath() {
+        Flight flight = flight(List.of(
+            point(15.38, 73.83, "Goa", Flight.RoutePoint.RoutePointType.DEPARTURE),
+            point(16.10, 74.20, null, Flight.RoutePoint.RoutePointType.WAYPOINT),
+            point(19.09, 72.87, "Mumbai", Flight.RoutePoint.RoutePointType.ARRIVAL)));
+        RouteGeometry.compact(flight);
+        Map<String, String> polylines = flight.getRoutePolylines();
+
+        // What an admin sends back after editing other fields
+        flight.setRoute(new ArrayList<>(flight.getRoute()));
+        RouteGeometry.compact(flight);
+
+        assertEquals(polylines, flight.getRoutePolylines());
+    }
+
+    @Test
+    void movedMarkerRebuildsThePath() {
+        Flight flight = flight(List.of(
+            point(15.38, 73.83, "Goa", Flight.RoutePoint.RoutePointType.DEPARTURE),
+            point(16.10, 74.20, null, Flight.RoutePoint.RoutePointType.WAYPOINT),
+            point(19.09, 72.87, "Mumbai", Flight.RoutePoint.RoutePointType.ARRIVAL)));
+        RouteGeometry.compact(flight);
+        String before = flight.getRoutePolylines().get(RouteGeometry.FULL);
+
+        flight.setRoute(List.of(
+            point(15.38, 73.83, "Goa", Flight.RoutePoint.RoutePointType.DEPARTURE),
+            point(12.97, 77.59, "Bengaluru", Flight.RoutePoint.RoutePointType.ARRIVAL)));
+        RouteGeometry.compact(flight);
+
+        String after = flight.getRoutePolylines().get(RouteGeometry.FULL);
+        assertNotEquals(before, after);
+        assertEquals(2, RouteGeometry.decode(after).size());
+        assertEquals(12.97, RouteGeometry.decode(after).get(1)[0], 1e-5);
+    }
+
+    private static Flight flight(List<Flight.RoutePoint> route) {
+        Flight flight = new Flight();
+        flight.setRoute(new ArrayList<>(route));
+        return flight;
+    }
+
+    private static Flight.RoutePoint point(double lat, double lng, String name, Flight.RoutePoint.RoutePointType type) {
+        Flight.RoutePoint point = new Flight.RoutePoint();
+        point.setLat(lat);
+        point.setLng(lng);
+        point.setName(name);
+        point.setType(type);
+        return point;
+    }
+}
@@ -0,0 +1,78 @@
+package com.scenicairways.service;
+
+import com.scenicairways.dto.FlightSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteSearchIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 1);
+
+    private final RouteSearchIndex index = new RouteSearchIndex();
+
+    @Test
+    void dateRangeReadsOnlyThoseDaysAndPrefixMatchesComeFirst() {
+        index.rebuild(List.of(
+            flight("1", "Navi Mumbai", "Goa", DAY),
+            flight("2", "Mumbai", "Goa", DAY.plusDays(1)),
+            flight("3", "Mumbai", "Goa", DAY.plusDays(5)),
+            flight("4", "Mumbai", "Goa", null),
+            flight("5", "Mumbai", "Delhi", DAY)));
+
+        assertEquals(List.of("2", "1"), ids(index.search("mumbai", "goa", DAY, DAY.plusDays(2))));
+        assertEquals(List.of("2", "3", "4", "1"), ids(index.search("Mumbai", "Goa", null, null)));
+        assertEquals(List.of("3"), ids(index.search("Mumbai", "Goa", DAY.plusDays(2), null)));
+    }
+
+    @Test
+    void blankQueryMatchesNothing() {
+        index.rebuild(List.of(flight("1", "Mumbai", "Goa", DAY)));
+
+        assertTrue(index.search(" ", "Goa", null, null).isEmpty());
+        assertTrue(index.search("Mumbai", null, DAY, DAY).isEmpty());
+    }
+
+    @Test
+    void seatUpdateLeavesSummariesAlreadyHandedOutAlone() {
+        index.rebuild(List.of(flight("1", "Mumbai", "Goa", DAY)));
+        FlightSummary returned = index.search("Mumbai", "Goa", DAY, DAY).get(0);
+
+        index.updateAvailableSeats("1", 7);
+
+        assertEquals(100, returned.getAvailableSeats());
+        assertEquals(7, index.get("1").getAvailableSeats());
+        assertEquals(7, index.search("Mumbai", "Goa", DAY, DAY).get(0).getAvailableSeats());
+    }
+
+    @Test
+    void movedFlightLeavesItsOldDate() {
+        index.rebuild(List.of(flight("1", "Mumbai", "Goa", DAY)));
+
+        index.put(flight("1", "Mumbai", "Goa", DAY.plusDays(3)));
+
+        assertTrue(index.search("Mumbai", "Goa", DAY, DAY).isEmpty());
+        assertEquals(List.of("1"), ids(index.search("Mumbai", "Goa", DAY.plusDays(3), DAY.plusDays(3))));
+    }
+
+    private static FlightSummary flight(String id, String departure, String arrival, LocalDate date) {
+        FlightSummary flight = new FlightSummary();
+        flight.setId(id);
+        flight.setDeparture(departure);
+        flight.setArrival(arrival);
+        flight.setDate(date);
+        flight.setDepartureTime(LocalTime.of(8, 0));
+        flight.setTotalSeats(100);
+        flight.setAvailableSeats(100);
+        return flight;
+    }
+
+    private static List<String> ids(List<FlightSummary> flights) {
+        return flights.stream().map(FlightSummary::getId).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.scenicairways.service;
+
+import com.scenicairways.model.SeatHold;
+import com.scenicairways.repository.SeatHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatHoldServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private SeatInventoryService seatInventoryService;
+    private SeatHoldService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        seatInventoryService = mock(SeatInventoryService.class);
+        service = new SeatHoldService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "seatInventoryService", seatInventoryService);
+        ReflectionTestUtils.setField(service, "seatHoldRepository", mock(SeatHoldRepository.class));
+    }
+
+    @Test
+    void sweepReleasesAHoldThisNodeNeverArmed() {
+        // Created on a node that has since gone away
+        SeatHold hold = hold("hold-1");
+        when(mongoTemplate.find(any(Query.class), eq(SeatHold.class))).thenReturn(List.of(hold));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(SeatHold.class))).thenReturn(hold);
+
+        service.sweepExpiredHolds();
+
+        verify(seatInventoryService).releaseSeats("flight-1", List.of("1A", "1B"));
+    }
+
+    @Test
+    void holdReleasedElsewhereIsNotReleasedAgain() {
+        when(mongoTemplate.find(any(Query.class), eq(SeatHold.class))).thenReturn(List.of(hold("hold-1")));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(SeatHold.class))).thenReturn(null);
+
+        service.sweepExpiredHolds();
+
+        verify(seatInventoryService, never()).releaseSeats(anyString(), anyList());
+    }
+
+    @Test
+    void fullBatchSweepsAgain() {
+        List<SeatHold> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(hold("hold-" + i));
+        }
+        when(mongoTemplate.find(any(Query.class), eq(SeatHold.class))).thenReturn(batch, List.of());
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(SeatHold.class))).thenReturn(hold("hold"));
+
+        service.sweepExpiredHolds();
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(SeatHold.class));
+        verify(seatInventoryService, times(100)).releaseSeats(anyString(), anyList());
+    }
+
+    private static SeatHold hold(String id) {
+        SeatHold hold = new SeatHold();
+        hold.setId(id);
+        hold.setFlightId("flight-1");
+        hold.setUserId("user-1");
+        hold.setSeats(List.of("1A", "1B"));
+        hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        return hold;
+    }
+}
@@ -0,0 +1,318 @@
+package com.scenicairways.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.scenicairways.model.Flight;
+import com.scenicairways.model.SeatMapTemplate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Claims and releases seats of one flight from two nodes that share a Mongo document but each keep
+ * their own cached inventory, both for a template-based flight (takenSeats overlay) and for a flight
+ * with its own seat layout. The document is simulated in memory with the same match-then-modify
+ * semantics as the conditional updates the service issues.
+ */
+class SeatInventoryServiceConcurrencyTest {
+
+    private static final String FLIGHT_ID = "flight-1";
+    private static final String TEMPLATE_ID = "template-1";
+    private static final int ROWS = 10;
+    private static final String COLUMNS = "ABCDEF";
+    private static final int CLAIMERS = 200;
+
+    private FlightDocument document;
+    private SeatInventoryService nodeA;
+    private SeatInventoryService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        start(false);
+    }
+
+    private void start(boolean ownLayout) {
+        SeatMapTemplate template = template();
+        document = new FlightDocument(template.getTotalSeats(), ownLayout);
+        MongoTemplate mongoTemplate = document.mongoTemplate();
+        nodeA = node(mongoTemplate, template);
+        nodeB = node(mongoTemplate, template);
+    }
+
+    @Test
+    void releaseFreesSeatsClaimedByAnotherNode() {
+        // Node A caches the flight while every seat is free, then node B sells 1A
+        nodeA.getInventory(FLIGHT_ID);
+        assertTrue(nodeB.claimSeats(FLIGHT_ID, List.of("1A")));
+
+        assertTrue(nodeA.releaseSeats(FLIGHT_ID, List.of("1A")));
+        assertTrue(document.taken().isEmpty());
+        assertEquals(document.totalSeats, document.availableSeats());
+    }
+
+    @Test
+    void repeatedReleaseDoesNotOvercount() {
+        assertTrue(nodeA.claimSeats(FLIGHT_ID, List.of("1A", "1B")));
+        assertTrue(nodeB.releaseSeats(FLIGHT_ID, List.of("1A")));
+
+        // 1A is free already; only 1B may be added back to the counter
+        assertTrue(nodeA.releaseSeats(FLIGHT_ID, List.of("1A", "1B")));
+        assertTrue(nodeB.releaseSeats(FLIGHT_ID, List.of("1A", "1B")));
+        assertTrue(document.taken().isEmpty());
+        assertEquals(document.totalSeats, document.availableSeats());
+    }
+
+    @Test
+    void claimFailsWhenAnotherNodeHoldsTheSeat() {
+        nodeA.getInventory(FLIGHT_ID);
+        assertTrue(nodeB.claimSeats(FLIGHT_ID, List.of("2C")));
+
+        assertFalse(nodeA.claimSeats(FLIGHT_ID, List.of("2C", "2D")));
+        assertEquals(Set.of("2C"), document.taken());
+    }
+
+    @Test
+    void claimFailsWhenAnotherNodeHoldsALayoutSeat() {
+        start(true);
+        nodeA.getInventory(FLIGHT_ID);
+        assertTrue(nodeB.claimSeats(FLIGHT_ID, List.of("2C")));
+
+        assertFalse(nodeA.claimSeats(FLIGHT_ID, List.of("2C", "2D")));
+        assertEquals(Set.of("2C"), document.taken());
+        assertTrue(nodeA.releaseSeats(FLIGHT_ID, List.of("2C")));
+        assertTrue(document.taken().isEmpty());
+        assertEquals(document.totalSeats, document.availableSeats());
+    }
+
+    @Test
+    void concurrentClaimsAndReleasesNeverDoubleSellOrLeakSeats() throws Exception {
+        claimConcurrently();
+    }
+
+    @Test
+    void concurrentLayoutClaimsAndReleasesNeverDoubleSellOrLeakSeats() throws Exception {
+        start(true);
+        claimConcurrently();
+    }
+
+    private void claimConcurrently() throws Exception {
+        List<String> seats = new ArrayList<>(document.totalSeats);
+        for (int row = 1; row <= ROWS; row++) {
+            for (char column : COLUMNS.toCharArray()) {
+                seats.add(row + String.valueOf(column));
+            }
+        }
+        Map<String, Integer> owners = new ConcurrentHashMap<>();
+        AtomicInteger claims = new AtomicInteger();
+        int operations = 200;
+        CountDownLatch ready = new CountDownLatch(CLAIMERS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CLAIMERS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < CLAIMERS; t++) {
+            int worker = t;
+            workers.add(pool.submit(() -> {
+                // Hold every claimer back until all of them can race for the same seats
+                ready.countDown();
+                ready.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<List<String>> held = new ArrayList<>();
+                for (int i = 0; i < operations; i++) {
+                    SeatInventoryService node = random.nextBoolean() ? nodeA : nodeB;
+                    if (!held.isEmpty() && random.nextInt(3) == 0) {
+                        List<String> release = held.remove(random.nextInt(held.size()));
+                        // Give the seats up before Mongo does, so a new owner never finds us still listed
+                        release.forEach(owners::remove);
+                        assertTrue(node.releaseSeats(FLIGHT_ID, release), "release of " + release);
+                        continue;
+                    }
+                    Set<String> wanted = new HashSet<>();
+                    int count = 1 + random.nextInt(3);
+                    while (wanted.size() < count) {
+                        wanted.add(seats.get(random.nextInt(seats.size())));
+                    }
+                    List<String> claim = List.copyOf(wanted);
+                    if (node.claimSeats(FLIGHT_ID, claim)) {
+                        claims.incrementAndGet();
+                        for (String seat : claim) {
+                            assertNull(owners.putIfAbsent(seat, worker), "seat " + seat + " sold twice");
+                        }
+                        held.add(claim);
+                    }
+                }
+                return null;
+            }));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> future : workers) {
+            future.get();
+        }
+
+        assertTrue(claims.get() > 0);
+        assertEquals(owners.keySet(), document.taken());
+        assertEquals(document.totalSeats - document.taken().size(), document.availableSeats());
+    }
+
+    private SeatInventoryService node(MongoTemplate mongoTemplate, SeatMapTemplate template) {
+        SeatMapService seatMapService = stub(SeatMapService.class);
+        when(seatMapService.getTemplate(TEMPLATE_ID)).thenReturn(template);
+
+        SeatInventoryService service = new SeatInventoryService();
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(service, "seatMapService", seatMapService);
+        ReflectionTestUtils.setField(service, "routeSearchIndex", stub(RouteSearchIndex.class));
+        ReflectionTestUtils.setField(service, "flightSearchCache", stub(FlightSearchCache.class));
+        ReflectionTestUtils.setField(service, "seatStreamService", stub(SeatStreamService.class));
+        ReflectionTestUtils.setField(service, "fareCalendar", stub(FareCalendar.class));
+        return service;
+    }
+
+    // Stub-only mocks keep no invocation history, which the stress test would otherwise pile up
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    private static SeatMapTemplate template() {
+        List<Flight.SeatRow> rows = new ArrayList<>();
+        for (int row = 1; row <= ROWS; row++) {
+            List<Flight.Seat> rowSeats = new ArrayList<>();
+            for (char column : COLUMNS.toCharArray()) {
+                Flight.Seat seat = new Flight.Seat();
+                seat.setSeatNumber(row + String.valueOf(column));
+                seat.setType(Flight.Seat.SeatType.ECONOMY);
+                seat.setAvailable(true);
+                rowSeats.add(seat);
+            }
+            Flight.SeatRow seatRow = new Flight.SeatRow();
+            seatRow.setRow(String.valueOf(row));
+            seatRow.setSeats(rowSeats);
+            rows.add(seatRow);
+        }
+        SeatMapTemplate template = new SeatMapTemplate();
+        template.setId(TEMPLATE_ID);
+        template.setRows(rows);
+        template.setTotalSeats(ROWS * COLUMNS.length());
+        return template;
+    }
+
+    /**
+     * The flight's taken seats and counter, updated atomically like a single Mongo document. Stored
+     * either as the takenSeats overlay or as isAvailable flags in the flight's own seatLayout.
+     */
+    private static class FlightDocument {
+        final int totalSeats;
+        private final boolean ownLayout;
+        private final Set<String> taken = new HashSet<>();
+        private int availableSeats;
+
+        FlightDocument(int totalSeats, boolean ownLayout) {
+            this.totalSeats = totalSeats;
+            this.ownLayout = ownLayout;
+            this.availableSeats = totalSeats;
+        }
+
+        synchronized Set<String> taken() {
+            return new HashSet<>(taken);
+        }
+
+        synchronized int availableSeats() {
+            return availableSeats;
+        }
+
+        MongoTemplate mongoTemplate() {
+            MongoTemplate mongoTemplate = stub(MongoTemplate.class);
+            when(mongoTemplate.findOne(any(Query.class), eq(Flight.class))).thenAnswer(invocation -> load());
+            when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Flight.class)))
+                .thenAnswer(invocation -> update(invocation.getArgument(0), invocation.getArgument(1)));
+            return mongoTemplate;
+        }
+
+        private synchronized Flight load() {
+            Flight flight = new Flight();
+            flight.setId(FLIGHT_ID);
+            if (ownLayout) {
+                List<Flight.SeatRow> layout = template().getRows();
+                layout.forEach(row -> row.getSeats().forEach(seat -> seat.setAvailable(!taken.contains(seat.getSeatNumber()))));
+                flight.setSeatLayout(layout);
+            } else {
+                flight.setSeatMapTemplateId(TEMPLATE_ID);
+                flight.setTakenSeats(new ArrayList<>(taken));
+            }
+            flight.setAvailableSeats(availableSeats);
+            return flight;
+        }
+
+        private synchronized UpdateResult update(Query query, UpdateDefinition update) {
+            int delta = ((Number) ((Document) update.getUpdateObject().get("$inc")).get("availableSeats")).intValue();
+            boolean claim = delta < 0;
+            Collection<?> seats = ownLayout ? layoutSeats(query, update, claim) : overlaySeats(query, claim);
+
+            boolean matches = claim ? seats.stream().noneMatch(taken::contains) : taken.containsAll(seats);
+            if (!matches) {
+                return UpdateResult.acknowledged(0, 0L, null);
+            }
+            for (Object seat : seats) {
+                if (claim) {
+                    taken.add((String) seat);
+                } else {
+                    taken.remove(seat);
+                }
+            }
+            availableSeats += delta;
+            return UpdateResult.acknowledged(1, 1L, null);
+        }
+
+        // Claims match on {takenSeats: {$nin: seats}}, releases on {takenSeats: {$all: seats}}
+        private static Collection<?> overlaySeats(Query query, boolean claim) {
+            Document condition = (Document) query.getQueryObject().get("takenSeats");
+            return (Collection<?>) condition.get(claim ? "$nin" : "$all");
+        }
+
+        // One {seatLayout.seats: {$elemMatch: {seatNumber, isAvailable}}} per seat, and an arrayFilter
+        // on seat.seatNumber naming the seats whose flag is set
+        private static Collection<?> layoutSeats(Query query, UpdateDefinition update, boolean claim) {
+            Set<Object> matched = new HashSet<>();
+            for (Object clause : (List<?>) query.getQueryObject().get("$and")) {
+                Document elemMatch = (Document) ((Document) ((Document) clause).get("seatLayout.seats")).get("$elemMatch");
+                assertEquals(claim, elemMatch.get("isAvailable"));
+                matched.add(elemMatch.get("seatNumber"));
+            }
+            Document filter = (Document) update.getArrayFilters().get(0).asDocument().get("seat.seatNumber");
+            Set<Object> filtered = new HashSet<>((Collection<?>) filter.get("$in"));
+            Object flag = ((Document) update.getUpdateObject().get("$set")).get("seatLayout.$[].seats.$[seat].isAvailable");
+
+            assertEquals(matched, filtered, "arrayFilter must name exactly the seats the query checks");
+            assertEquals(!claim, flag);
+            return matched;
+        }
+    }
+}
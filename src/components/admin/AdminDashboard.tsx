@@ -1,10 +1,10 @@
 import React, { useState } from 'react';
 import { PlusCircle, Plane, Users, Calendar, TrendingUp, CreditCard as Edit, Trash2, Eye } from 'lucide-react';
-import { Flight, Booking } from '../../types';
+import { Flight, FlightSummary, Booking } from '../../types';
 import { FlightForm } from './FlightForm';
 import { AIGeneratedDescription } from '../flight/AIGeneratedDescription';
 import { useAuth } from '../../contexts/AuthContext';
-import { api } from '../../config/api';
+import { api, fetchPage } from '../../config/api';
 import { Card, CardContent, CardHeader } from '../ui/Card';
 import { Button } from '../ui/Button';
 import { Badge } from '../ui/Badge';
@@ -14,8 +14,10 @@ import { mockBookings } from '../../data/mockData';
 export const AdminDashboard: React.FC = () => {
   const { token } = useAuth();
   const [activeTab, setActiveTab] = useState<'overview' | 'flights' | 'bookings' | 'analytics'>('overview');
-  const [flights, setFlights] = useState<Flight[]>([]);
+  const [flights, setFlights] = useState<FlightSummary[]>([]);
   const [bookings, setBookings] = useState<Booking[]>([]);
+  const [flightsCursor, setFlightsCursor] = useState<string | null>(null);
+  const [bookingsCursor, setBookingsCursor] = useState<string | null>(null);
   const [showFlightForm, setShowFlightForm] = useState(false);
   const [editingFlight, setEditingFlight] = useState<Flight | null>(null);
   const [showFlightDetails, setShowFlightDetails] = useState<Flight | null>(null);
@@ -28,16 +30,15 @@ export const AdminDashboard: React.FC = () => {
     }
   }, [token]);
 
-  const fetchFlights = async () => {
+  // Without a cursor the list restarts from the first page; with one the next page is appended
+  const fetchFlights = async (after?: string) => {
     if (!token) return;
     
     try {
       setLoading(true);
-      const response = await api.getAllFlights(token);
-      if (response.ok) {
-        const flightsData = await response.json();
-        setFlights(flightsData);
-      }
+      const page = await fetchPage<FlightSummary>(cursor => api.getAllFlights(token, cursor), after);
+      setFlights(current => after ? [...current, ...page.items] : page.items);
+      setFlightsCursor(page.nextCursor);
     } catch (error) {
       console.error('Error fetching flights:', error);
     } finally {
@@ -45,23 +46,39 @@ export const AdminDashboard: React.FC = () => {
     }
   };
 
-  const fetchBookings = async () => {
+  const fetchBookings = async (after?: string) => {
     if (!token) return;
     
     try {
-      const response = await api.getAllBookings(token);
+      setLoading(true);
+      const page = await fetchPage<Booking>(cursor => api.getAllBookings(token, cursor), after);
+      setBookings(current => after ? [...current, ...page.items] : page.items);
+      setBookingsCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error fetching bookings:', error);
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  // The list holds summaries; viewing or editing needs the full flight, or a save would blank its description
+  const openFlight = async (flightId: string, show: (flight: Flight) => void) => {
+    if (!token) return;
+
+    try {
+      const response = await api.getFlight(flightId, token);
       if (response.ok) {
-        const bookingsData = await response.json();
-        setBookings(bookingsData);
+        show(await response.json());
       }
     } catch (error) {
-      console.error('Error fetching bookings:', error);
+      console.error('Error loading flight:', error);
     }
   };
 
+  // Counted over the pages loaded so far; a trailing + means there are more
   const stats = {
-    totalFlights: flights.length,
-    totalBookings: bookings.length,
+    totalFlights: `${flights.length}${flightsCursor ? '+' : ''}`,
+    totalBookings: `${bookings.length}${bookingsCursor ? '+' : ''}`,
     totalRevenue: bookings.reduce((sum, booking) => sum + booking.totalPrice, 0),
     averageOccupancy: 75
   };
@@ -316,7 +333,7 @@ export const AdminDashboard: React.FC = () => {
                           variant="ghost"
                           size="sm"
                           icon={Eye}
-                          onClick={() => setShowFlightDetails(flight)}
+                          onClick={() => openFlight(flight.id, setShowFlightDetails)}
                         >
                           View
                         </Button>
@@ -324,10 +341,10 @@ export const AdminDashboard: React.FC = () => {
                           variant="ghost"
                           size="sm"
                           icon={Edit}
-                          onClick={() => {
-                            setEditingFlight(flight);
+                          onClick={() => openFlight(flight.id, full => {
+                            setEditingFlight(full);
                             setShowFlightForm(true);
-                          }}
+                          })}
                         >
                           Edit
                         </Button>
@@ -349,6 +366,14 @@ export const AdminDashboard: React.FC = () => {
               </div>
             ))}
           </div>
+
+          {flightsCursor && (
+            <div className="flex justify-center">
+              <Button variant="outline" loading={loading} onClick={() => fetchFlights(flightsCursor)}>
+                Load more flights
+              </Button>
+            </div>
+          )}
         </div>
       )}
 
@@ -361,10 +386,8 @@ export const AdminDashboard: React.FC = () => {
           
           <div className="grid gap-6">
             {bookings.map(booking => {
+              // The booking's flight may be on a page of flights that has not been loaded yet
               const flight = flights.find(f => f.id === booking.flightId);
-              if (!flight) return null;
-              
-              if (!flight) return null;
               
               return (
                 <Card key={booking.id} hover>
@@ -386,11 +409,13 @@ export const AdminDashboard: React.FC = () => {
                           <div>
                             <p className="font-medium text-gray-900 dark:text-gray-100">Flight</p>
                             <p className="text-gray-600 dark:text-gray-400">
-                              {flight?.flightNumber}
-                            </p>
-                            <p className="text-gray-600 dark:text-gray-400">
-                              {flight?.departure} → {flight?.arrival}
+                              {flight?.flightNumber ?? booking.flightId}
                             </p>
+                            {flight && (
+                              <p className="text-gray-600 dark:text-gray-400">
+                                {flight.departure} → {flight.arrival}
+                              </p>
+                            )}
                           </div>
                           <div>
                             <p className="font-medium text-gray-900 dark:text-gray-100">Passenger</p>
@@ -421,6 +446,14 @@ export const AdminDashboard: React.FC = () => {
               );
             })}
           </div>
+
+          {bookingsCursor && (
+            <div className="flex justify-center">
+              <Button variant="outline" loading={loading} onClick={() => fetchBookings(bookingsCursor)}>
+                Load more bookings
+              </Button>
+            </div>
+          )}
         </div>
       )}
 
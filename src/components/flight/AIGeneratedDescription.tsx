@@ -1,9 +1,9 @@
 import React, { useState, useEffect } from 'react';
 import { Sparkles, Eye, Mountain, Waves, Sun, Cloud } from 'lucide-react';
-import { Flight } from '../../types';
+import { FlightSummary } from '../../types';
 
 interface AIGeneratedDescriptionProps {
-  flight: Flight;
+  flight: FlightSummary;
   className?: string;
 }
 
@@ -33,7 +33,7 @@ export const AIGeneratedDescription: React.FC<AIGeneratedDescriptionProps> = ({
     setLoading(false);
   };
 
-  const generateAIDescription = (flight: Flight): string => {
+  const generateAIDescription = (flight: FlightSummary): string => {
     const route = `${flight.departure.toLowerCase()}-${flight.arrival.toLowerCase()}`;
     
     const routeDescriptions: Record<string, string> = {
@@ -49,7 +49,7 @@ export const AIGeneratedDescription: React.FC<AIGeneratedDescriptionProps> = ({
     return routeDescriptions[route] || generateGenericDescription(flight);
   };
 
-  const generateGenericDescription = (flight: Flight): string => {
+  const generateGenericDescription = (flight: FlightSummary): string => {
     const timeContext = getTimeContext(flight.sunPosition);
     const sideContext = getSideContext(flight.scenicSide);
     
@@ -80,7 +80,7 @@ export const AIGeneratedDescription: React.FC<AIGeneratedDescriptionProps> = ({
     }
   };
 
-  const generateHighlights = (flight: Flight): string[] => {
+  const generateHighlights = (flight: FlightSummary): string[] => {
     const baseHighlights = [
       'Optimal altitude for scenic photography',
       'Crystal-clear visibility conditions',
@@ -1,6 +1,33 @@
 import React, { useEffect, useRef, useState } from 'react';
 import { Sun, Sunrise, Sunset, MapPin, Plane } from 'lucide-react';
-import { Flight, RoutePoint } from '../../types';
+import { Flight, RoutePoint, RouteGeometry } from '../../types';
+import { api } from '../../config/api';
+import { useAuth } from '../../contexts/AuthContext';
+
+// Decodes an encoded polyline (precision 5) into [lat, lng] pairs
+const decodePolyline = (encoded: string): [number, number][] => {
+  const points: [number, number][] = [];
+  let index = 0;
+  let lat = 0;
+  let lng = 0;
+  const next = () => {
+    let result = 0;
+    let shift = 0;
+    let chunk;
+    do {
+      chunk = encoded.charCodeAt(index++) - 63;
+      result |= (chunk & 0x1f) << shift;
+      shift += 5;
+    } while (chunk >= 0x20);
+    return result & 1 ? ~(result >> 1) : result >> 1;
+  };
+  while (index < encoded.length) {
+    lat += next();
+    lng += next();
+    points.push([lat / 1e5, lng / 1e5]);
+  }
+  return points;
+};
 
 interface InteractiveMapProps {
   flight: Flight;
@@ -11,6 +38,10 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
   const canvasRef = useRef<HTMLCanvasElement>(null);
   const [currentTime, setCurrentTime] = useState(new Date());
   const [sunPosition, setSunPosition] = useState({ x: 0, y: 0 });
+  const { token } = useAuth();
+  // The flight's route holds only named points; the path between them comes from the route endpoint
+  const [markers, setMarkers] = useState<RoutePoint[]>(flight.route || []);
+  const [path, setPath] = useState<[number, number][]>([]);
 
   useEffect(() => {
     const timer = setInterval(() => {
@@ -21,10 +52,29 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
   }, []);
 
   useEffect(() => {
-    if (canvasRef.current && flight.route) {
+    setMarkers(flight.route || []);
+    setPath([]);
+    if (!token) return;
+
+    let cancelled = false;
+    api.getRoute(flight.id, token)
+      .then(response => (response.ok ? response.json() : null))
+      .then((geometry: RouteGeometry | null) => {
+        if (cancelled || !geometry) return;
+        setMarkers(geometry.markers);
+        setPath(decodePolyline(geometry.polyline));
+      })
+      .catch(error => console.error('Error loading route:', error));
+    return () => {
+      cancelled = true;
+    };
+  }, [flight.id, token]);
+
+  useEffect(() => {
+    if (canvasRef.current && markers.length > 0) {
       drawMap();
     }
-  }, [flight, currentTime]);
+  }, [flight, markers, path, currentTime]);
 
   const calculateSunPosition = (time: Date, lat: number, lng: number) => {
     // Simplified sun position calculation
@@ -54,7 +104,7 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
 
   const drawMap = () => {
     const canvas = canvasRef.current;
-    if (!canvas || !flight.route) return;
+    if (!canvas || markers.length === 0) return;
 
     const ctx = canvas.getContext('2d');
     if (!ctx) return;
@@ -62,9 +112,12 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
     const { width, height } = canvas;
     ctx.clearRect(0, 0, width, height);
 
+    // Draw the decoded path, or straight lines between markers until it loads
+    const line: [number, number][] = path.length >= 2 ? path : markers.map(p => [p.lat, p.lng]);
+
     // Calculate bounds
-    const lats = flight.route.map(p => p.lat);
-    const lngs = flight.route.map(p => p.lng);
+    const lats = [...line.map(([lat]) => lat), ...markers.map(p => p.lat)];
+    const lngs = [...line.map(([, lng]) => lng), ...markers.map(p => p.lng)];
     const minLat = Math.min(...lats) - 1;
     const maxLat = Math.max(...lats) + 1;
     const minLng = Math.min(...lngs) - 1;
@@ -87,9 +140,9 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
     ctx.setLineDash([5, 5]);
     ctx.beginPath();
     
-    flight.route.forEach((point, index) => {
-      const x = lngToX(point.lng);
-      const y = latToY(point.lat);
+    line.forEach(([lat, lng], index) => {
+      const x = lngToX(lng);
+      const y = latToY(lat);
       
       if (index === 0) {
         ctx.moveTo(x, y);
@@ -101,7 +154,7 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
     ctx.setLineDash([]);
 
     // Draw route points
-    flight.route.forEach((point, index) => {
+    markers.forEach((point, index) => {
       const x = lngToX(point.lng);
       const y = latToY(point.lat);
 
@@ -120,8 +173,8 @@ export const InteractiveMap: React.FC<InteractiveMapProps> = ({ flight, classNam
     });
 
     // Calculate and draw sun position
-    if (flight.route.length > 0) {
-      const midPoint = flight.route[Math.floor(flight.route.length / 2)];
+    if (markers.length > 0) {
+      const midPoint = markers[Math.floor(markers.length / 2)];
       const sunPos = calculateSunPosition(currentTime, midPoint.lat, midPoint.lng);
       
       // Draw sun
@@ -1,11 +1,11 @@
 import React from 'react';
 import { Plane, Clock, MapPin, Sunrise, Sun, Sunset } from 'lucide-react';
-import { Flight } from '../../types';
+import { FlightSummary } from '../../types';
 import { Button } from '../ui/Button';
 import { Badge } from '../ui/Badge';
 
 interface FlightCardProps {
-  flight: Flight;
+  flight: FlightSummary;
   onBook: (flightId: string) => void;
 }
 
@@ -75,19 +75,21 @@ export const FlightCard: React.FC<FlightCardProps> = ({ flight, onBook }) => {
         </div>
 
         {/* Scenic description */}
-        <div className="bg-gradient-to-r from-orange-50 to-yellow-50 dark:from-orange-900/20 dark:to-yellow-900/20 p-4 rounded-lg mb-4">
-          <div className="flex items-start gap-3">
-            <MapPin className="w-5 h-5 text-orange-600 mt-0.5" />
-            <div>
-              <h4 className="font-medium text-gray-900 dark:text-gray-100 mb-1">
-                Scenic Highlights
-              </h4>
-              <p className="text-sm text-gray-700 dark:text-gray-300">
-                {flight.scenicDescription}
-              </p>
+        {flight.scenicDescription && (
+          <div className="bg-gradient-to-r from-orange-50 to-yellow-50 dark:from-orange-900/20 dark:to-yellow-900/20 p-4 rounded-lg mb-4">
+            <div className="flex items-start gap-3">
+              <MapPin className="w-5 h-5 text-orange-600 mt-0.5" />
+              <div>
+                <h4 className="font-medium text-gray-900 dark:text-gray-100 mb-1">
+                  Scenic Highlights
+                </h4>
+                <p className="text-sm text-gray-700 dark:text-gray-300">
+                  {flight.scenicDescription}
+                </p>
+              </div>
             </div>
           </div>
-        </div>
+        )}
 
         {/* Details and price */}
         <div className="flex items-center justify-between">
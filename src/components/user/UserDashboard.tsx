@@ -1,6 +1,6 @@
 import React, { useState } from 'react';
 import { Search, Ticket, Clock, MapPin } from 'lucide-react';
-import { Flight, Booking } from '../../types';
+import { Flight, FlightSummary, Booking, SeatRow } from '../../types';
 import { FlightSearch } from './FlightSearch';
 import { FlightCard } from './FlightCard';
 import { SeatMap } from './SeatMap';
@@ -9,7 +9,7 @@ import { InteractiveMap } from '../map/InteractiveMap';
 import { QRTicketDownload } from '../booking/QRTicketDownload';
 import { AIGeneratedDescription } from '../flight/AIGeneratedDescription';
 import { useAuth } from '../../contexts/AuthContext';
-import { api } from '../../config/api';
+import { api, fetchPage } from '../../config/api';
 import { Button } from '../ui/Button';
 import { Card, CardContent, CardHeader } from '../ui/Card';
 import { Badge } from '../ui/Badge';
@@ -17,11 +17,12 @@ import { Badge } from '../ui/Badge';
 export const UserDashboard: React.FC = () => {
   const { user, token } = useAuth();
   const [activeTab, setActiveTab] = useState<'search' | 'bookings'>('search');
-  const [searchResults, setSearchResults] = useState<Flight[]>([]);
+  const [searchResults, setSearchResults] = useState<FlightSummary[]>([]);
   const [selectedFlight, setSelectedFlight] = useState<Flight | null>(null);
   const [selectedSeats, setSelectedSeats] = useState<string[]>([]);
   const [showBookingModal, setShowBookingModal] = useState(false);
   const [userBookings, setUserBookings] = useState<Booking[]>([]);
+  const [bookingsCursor, setBookingsCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(false);
 
   React.useEffect(() => {
@@ -30,16 +31,15 @@ export const UserDashboard: React.FC = () => {
     }
   }, [activeTab, token]);
 
-  const fetchUserBookings = async () => {
+  // Without a cursor the list restarts from the first page; with one the next page is appended
+  const fetchUserBookings = async (after?: string) => {
     if (!token) return;
     
     try {
       setLoading(true);
-      const response = await api.getUserBookings(token);
-      if (response.ok) {
-        const bookings = await response.json();
-        setUserBookings(bookings);
-      }
+      const page = await fetchPage<Booking>(cursor => api.getUserBookings(token, cursor), after);
+      setUserBookings(current => after ? [...current, ...page.items] : page.items);
+      setBookingsCursor(page.nextCursor);
     } catch (error) {
       console.error('Error fetching bookings:', error);
     } finally {
@@ -78,11 +78,36 @@ export const UserDashboard: React.FC = () => {
     }
   };
 
-  const handleFlightSelect = (flightId: string) => {
-    const flight = searchResults.find(f => f.id === flightId);
-    if (flight) {
-      setSelectedFlight(flight);
+  // Search results are summaries; the route comes with the full flight, and the seat layout from
+  // /seats, which also resolves flights that share a seat-map template
+  const handleFlightSelect = async (flightId: string) => {
+    const summary = searchResults.find(f => f.id === flightId);
+    if (!summary) return;
+    if ('seatLayout' in summary) {
+      setSelectedFlight(summary as Flight);
+      setSelectedSeats([]);
+      return;
+    }
+    if (!token) return;
+
+    try {
+      setLoading(true);
+      const [flightResponse, seatsResponse] = await Promise.all([
+        api.getFlight(flightId, token),
+        api.getSeatLayout(flightId, token),
+      ]);
+      if (!flightResponse.ok || !seatsResponse.ok) {
+        throw new Error(flightResponse.ok ? seatsResponse.statusText : flightResponse.statusText);
+      }
+      const flight: Flight = await flightResponse.json();
+      const seatLayout: SeatRow[] = await seatsResponse.json();
+      setSelectedFlight({ ...flight, seatLayout, route: flight.route ?? [] });
       setSelectedSeats([]);
+    } catch (error) {
+      console.error('Error loading flight:', error);
+      alert('Could not load this flight. Please try again.');
+    } finally {
+      setLoading(false);
     }
   };
 
@@ -384,6 +409,14 @@ export const UserDashboard: React.FC = () => {
                   </div>
                 );
               })}
+
+              {bookingsCursor && (
+                <div className="flex justify-center">
+                  <Button variant="outline" loading={loading} onClick={() => fetchUserBookings(bookingsCursor)}>
+                    Load more bookings
+                  </Button>
+                </div>
+              )}
             </div>
           ) : (
             <Card>
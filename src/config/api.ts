@@ -1 +1,86 @@
-{"code":"rate-limited","message":"You have hit the rate limit. Please upgrade to keep chatting.","providerLimitHit":false,"isRetryable":true}
\ No newline at end of file
+import { PageResponse } from '../types';
+
+export const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api';
+
+const jsonHeaders = (token?: string): HeadersInit => ({
+  'Content-Type': 'application/json',
+  ...(token ? { Authorization: `Bearer ${token}` } : {}),
+});
+
+const pageQuery = (after?: string) => (after ? `?after=${encodeURIComponent(after)}` : '');
+
+export const api = {
+  login: (credentials: { username: string; password: string }) =>
+    fetch(`${API_BASE_URL}/auth/login`, {
+      method: 'POST',
+      headers: jsonHeaders(),
+      body: JSON.stringify(credentials),
+    }),
+
+  register: (details: { username: string; email: string; password: string }) =>
+    fetch(`${API_BASE_URL}/auth/register`, {
+      method: 'POST',
+      headers: jsonHeaders(),
+      body: JSON.stringify(details),
+    }),
+
+  searchFlights: (params: { departure: string; arrival: string; date?: string }) => {
+    const query = new URLSearchParams({ departure: params.departure, arrival: params.arrival });
+    if (params.date) query.set('date', params.date);
+    return fetch(`${API_BASE_URL}/flights/search?${query}`, { headers: jsonHeaders() });
+  },
+
+  getFlight: (id: string, token: string) =>
+    fetch(`${API_BASE_URL}/flights/${id}`, { headers: jsonHeaders(token) }),
+
+  getSeatLayout: (id: string, token: string) =>
+    fetch(`${API_BASE_URL}/flights/${id}/seats`, { headers: jsonHeaders(token) }),
+
+  getRoute: (id: string, token: string, zoom = 6) =>
+    fetch(`${API_BASE_URL}/flights/${id}/route?zoom=${zoom}`, { headers: jsonHeaders(token) }),
+
+  getAllFlights: (token: string, after?: string) =>
+    fetch(`${API_BASE_URL}/flights${pageQuery(after)}`, { headers: jsonHeaders(token) }),
+
+  createFlight: (flight: unknown, token: string) =>
+    fetch(`${API_BASE_URL}/flights`, {
+      method: 'POST',
+      headers: jsonHeaders(token),
+      body: JSON.stringify(flight),
+    }),
+
+  updateFlight: (id: string, flight: unknown, token: string) =>
+    fetch(`${API_BASE_URL}/flights/${id}`, {
+      method: 'PUT',
+      headers: jsonHeaders(token),
+      body: JSON.stringify(flight),
+    }),
+
+  deleteFlight: (id: string, token: string) =>
+    fetch(`${API_BASE_URL}/flights/${id}`, { method: 'DELETE', headers: jsonHeaders(token) }),
+
+  getAllBookings: (token: string, after?: string) =>
+    fetch(`${API_BASE_URL}/bookings${pageQuery(after)}`, { headers: jsonHeaders(token) }),
+
+  getUserBookings: (token: string, after?: string) =>
+    fetch(`${API_BASE_URL}/bookings/user${pageQuery(after)}`, { headers: jsonHeaders(token) }),
+
+  createBooking: (booking: unknown, token: string) =>
+    fetch(`${API_BASE_URL}/bookings`, {
+      method: 'POST',
+      headers: jsonHeaders(token),
+      body: JSON.stringify(booking),
+    }),
+};
+
+// List endpoints return one page at a time; pass the previous page's nextCursor to get the next one
+export const fetchPage = async <T>(
+  request: (after?: string) => Promise<Response>,
+  after?: string,
+): Promise<PageResponse<T>> => {
+  const response = await request(after);
+  if (!response.ok) {
+    throw new Error(`Request failed: ${response.status} ${response.statusText}`);
+  }
+  return response.json();
+};
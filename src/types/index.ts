@@ -25,6 +25,11 @@ export interface Flight {
   sunPosition?: 'sunrise' | 'sunset' | 'daylight';
 }
 
+// What list and search endpoints return; open a flight by id for its seat layout and route
+export type FlightSummary = Omit<Flight, 'seatLayout' | 'route' | 'scenicDescription'> & {
+  scenicDescription?: string;
+};
+
 export interface SeatRow {
   row: string;
   seats: Seat[];
@@ -64,6 +69,18 @@ export interface RoutePoint {
   type: 'departure' | 'arrival' | 'waypoint';
 }
 
+// Flight path at one detail level as an encoded polyline (precision 5), plus the named points
+export interface RouteGeometry {
+  level: string;
+  polyline: string;
+  markers: RoutePoint[];
+}
+
+export interface PageResponse<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
 export interface AuthState {
   user: User | null;
   isAuthenticated: boolean;